@@ -83,4 +83,7 @@ public class MetricsConstant {
   public static final String QC_REJECTED_TOO_LARGE = "qc_rejected_too_large";
   public static final String QC_TOTAL_ENTRIES_ADDED = "qc_total_entries_added";
 
+  public static final String PARSE_CACHE_HITS = "parse_cache_hits";
+  public static final String PARSE_CACHE_MISSES = "parse_cache_misses";
+
 }
\ No newline at end of file
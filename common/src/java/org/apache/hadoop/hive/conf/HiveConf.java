@@ -362,6 +362,7 @@ private static void populateLlapDaemonVarsSet(Set<String> llapDaemonVarsSetLocal
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_DECODING_METRICS_PERCENTILE_INTERVALS.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_ORC_ENABLE_TIME_COUNTERS.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_THREADPOOL_SIZE.varname);
+    llapDaemonVarsSetLocal.add(ConfVars.LLAP_IO_DECODE_THREADPOOL_SIZE.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_KERBEROS_PRINCIPAL.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_KERBEROS_KEYTAB_FILE.varname);
     llapDaemonVarsSetLocal.add(ConfVars.LLAP_ZKSM_ZK_CONNECTION_STRING.varname);
@@ -470,6 +471,10 @@ public static enum ConfVars {
     REPL_DUMP_METADATA_ONLY("hive.repl.dump.metadata.only", false,
         "Indicates whether replication dump only metadata information or data + metadata. \n"
           + "This config makes hive.repl.include.external.tables config ineffective."),
+    REPL_DUMP_PREFETCH_EVENTS("hive.repl.dump.prefetch.events", false,
+        "Indicates whether incremental REPL DUMP reads the next batch of notification events from \n"
+          + "metastore in the background, using a metastore connection of its own, while the events \n"
+          + "of the current batch are being dumped."),
     REPL_BOOTSTRAP_ACID_TABLES("hive.repl.bootstrap.acid.tables", false,
         "Indicates if repl dump should bootstrap the information about ACID tables along with \n"
             + "incremental dump for replication. It is recommended to keep this config parameter \n"
@@ -1112,6 +1117,11 @@ public static enum ConfVars {
         "Maximum number of objects (tables/partitions) can be retrieved from metastore in one batch. \n" +
         "The higher the number, the less the number of round trips is needed to the Hive metastore server, \n" +
         "but it may also cause higher memory requirement at the client side."),
+    METASTORE_BATCH_RETRIEVE_ALL_PARTITIONS("hive.metastore.batch.retrieve.all.partitions", false,
+        "Whether listing all the partitions of a table (e.g. when the query has no partition filter)\n" +
+        "fetches the partition names first, and then the partitions in batches of\n" +
+        "hive.metastore.batch.retrieve.max, instead of in a single metastore call. This bounds the\n" +
+        "size of each metastore response for tables with a very large number of partitions."),
     /**
      * @deprecated Use MetastoreConf.BATCH_RETRIEVE_OBJECTS_MAX
      */
@@ -2526,6 +2536,12 @@ public static enum ConfVars {
         "Column statistics are fetched from metastore. Fetching column statistics for each needed column\n" +
         "can be expensive when the number of columns is high. This flag can be used to disable fetching\n" +
         "of column statistics from metastore."),
+    HIVE_STATS_FETCH_COLUMN_STATS_THREADS("hive.stats.fetch.column.stats.threads", 1,
+        "Number of threads used by the cost based optimizer to fetch the column statistics of all the\n" +
+        "tables of a query from metastore before join reordering. The threads are shared by all the\n" +
+        "queries of the process and keep a metastore connection each, so the value is read once, by\n" +
+        "the first query. With 1, the statistics are fetched one table at a time, when they are first\n" +
+        "needed."),
     // in the absence of column statistics, the estimated number of rows/data size that will
     // be emitted from join operator will depend on this factor
     HIVE_STATS_JOIN_FACTOR("hive.stats.join.factor", (float) 1.1,
@@ -2940,6 +2956,11 @@ public static enum ConfVars {
         "is calculated by summation of file lengths. If it's not native, storage handler for the table\n" +
         "can optionally implement org.apache.hadoop.hive.ql.metadata.InputEstimator interface."),
 
+    HIVEFETCHTASKREADAHEAD("hive.fetch.task.read.ahead", false,
+        "Whether the fetch task reading the results of a query opens the next result file in the\n" +
+        "background while the current one is read. This hides the latency of opening each file, which\n" +
+        "matters for results made of many files, or stored on object stores."),
+
     HIVEFETCHTASKAGGR("hive.fetch.task.aggr", false,
         "Aggregation queries with no group-by clause (for example, select count(*) from src) execute\n" +
         "final aggregations in single reduce task. If this is set true, Hive delegates final aggregation\n" +
@@ -3249,6 +3270,10 @@ public static enum ConfVars {
         "enable parallel compilation of the queries between sessions and within the same session on HiveServer2. The default is false."),
     HIVE_SERVER2_PARALLEL_COMPILATION_LIMIT("hive.driver.parallel.compilation.global.limit", -1, "Determines the " +
         "degree of parallelism for queries compilation between sessions on HiveServer2. The default is -1."),
+    HIVE_COMPILE_METADATA_PREFETCH("hive.compile.metadata.prefetch", false,
+        "Whether to fetch the metadata of the tables read by a query from metastore at the start of\n" +
+        "its compilation, with one call per database. Otherwise the tables are fetched one at a time,\n" +
+        "while the query is being analyzed."),
     HIVE_SERVER2_COMPILE_LOCK_TIMEOUT("hive.server2.compile.lock.timeout", "0s",
         new TimeValidator(TimeUnit.SECONDS),
         "Number of seconds a request will wait to acquire the compile lock before giving up. " +
@@ -3688,6 +3713,12 @@ public static enum ConfVars {
     HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE("hive.server2.thrift.resultset.default.fetch.size", 1000,
         "The number of rows sent in one Fetch RPC call by the server to the client, if not\n" +
         "specified by the client."),
+    HIVE_SERVER2_THRIFT_RESULTSET_MAX_FETCH_BYTES("hive.server2.thrift.resultset.max.fetch.bytes", "0",
+        new SizeValidator(0L, true, (long) Integer.MAX_VALUE, true),
+        "Approximate max size of the rows sent in one Fetch RPC call by the server to the client.\n" +
+        "Once the rows fetched so far reach it, the server returns fewer rows than requested, and\n" +
+        "the client fetches the rest in the next calls. Bounds the memory used by a fetch of wide\n" +
+        "rows with a large fetch size. 0 means no limit."),
     HIVE_SERVER2_XSRF_FILTER_ENABLED("hive.server2.xsrf.filter.enabled",false,
         "If enabled, HiveServer2 will block any requests made to it over http " +
         "if an X-XSRF-HEADER header is not present"),
@@ -4064,6 +4095,12 @@ public static enum ConfVars {
     LLAP_IO_ENABLED("hive.llap.io.enabled", null, "Whether the LLAP IO layer is enabled."),
     LLAP_IO_ROW_WRAPPER_ENABLED("hive.llap.io.row.wrapper.enabled", true, "Whether the LLAP IO row wrapper is enabled for non-vectorized queries."),
     LLAP_IO_ACID_ENABLED("hive.llap.io.acid", true, "Whether the LLAP IO layer is enabled for ACID."),
+    LLAP_IO_SARG_ROW_FILTER_ENABLED("hive.llap.io.sarg.row.filter.enabled", false,
+        "Whether the LLAP IO layer decodes the columns of the pushed down search argument first, and\n" +
+        "evaluates it against their rows, before decoding the other columns of a row group. The other\n" +
+        "columns are not decoded past the last batch of the row group with a matching row, and batches\n" +
+        "without any matching row are not passed to the operators. Only applies to non-ACID reads of\n" +
+        "files with a row index; predicates on integer, floating point and string columns are evaluated."),
     LLAP_IO_TRACE_SIZE("hive.llap.io.trace.size", "2Mb",
         new SizeValidator(0L, true, (long)Integer.MAX_VALUE, false),
         "The buffer size for a per-fragment LLAP debug trace. 0 to disable."),
@@ -4213,6 +4250,10 @@ public static enum ConfVars {
         "hive.llap.queue.metrics.percentiles.intervals"),
     LLAP_IO_THREADPOOL_SIZE("hive.llap.io.threadpool.size", 10,
         "Specify the number of threads to use for low-level IO thread pool."),
+    LLAP_IO_DECODE_THREADPOOL_SIZE("hive.llap.io.decode.threadpool.size", 0,
+        "Specify the number of threads in the pool shared by all IO threads to decode the columns\n" +
+        "of an ORC row group in parallel. 0 disables parallel decoding; columns are then decoded\n" +
+        "sequentially on the IO thread reading the split."),
     LLAP_USE_KERBEROS("hive.llap.kerberos.enabled", true,
         "If LLAP is configured for Kerberos authentication. This could be useful when cluster\n" +
         "is kerberized, but LLAP is not."),
@@ -4453,6 +4494,16 @@ public static enum ConfVars {
             " to a location other than the ones requested. Set to -1 for an infinite delay, 0" +
             "for no delay."
     ),
+    LLAP_TASK_SCHEDULER_CACHE_AFFINITY_ENABLED(
+        "hive.llap.task.scheduler.cache.affinity.enabled", false,
+        "Whether the AM LLAP scheduler should track, per node, which requested locations it has\n" +
+        "placed work for, and prefer those nodes when a task misses its requested location. When\n" +
+        "disabled, a locality miss falls back to the next node in consistent order."),
+    LLAP_TASK_SCHEDULER_CACHE_AFFINITY_SUMMARY_SIZE(
+        "hive.llap.task.scheduler.cache.affinity.summary.size", 1000,
+        "The number of distinct requested locations tracked per node by the cache affinity\n" +
+        "summary. Once full, the least recently used location is dropped. Only used when\n" +
+        "hive.llap.task.scheduler.cache.affinity.enabled is true."),
     LLAP_DAEMON_TASK_PREEMPTION_METRICS_INTERVALS(
         "hive.llap.daemon.task.preemption.metrics.intervals", "30,60,300",
         "Comma-delimited set of integers denoting the desired rollover intervals (in seconds)\n" +
@@ -4774,6 +4825,13 @@ public static enum ConfVars {
         "Size of the runtime statistics cache. Unit is: OperatorStat entry; a query plan consist ~100."),
     HIVE_QUERY_PLANMAPPER_LINK_RELNODES("hive.query.planmapper.link.relnodes", true,
         "Wether to link Calcite nodes to runtime statistics."),
+    HIVE_QUERY_PARSE_CACHE_SIZE("hive.query.parse.cache.size", "0", new SizeValidator(),
+        "Approximate max size of the parsed query shapes kept per process, measured as the total\n" +
+        "length of their token sequences. It is read once, when the first query is parsed, so it\n" +
+        "has to be set at the HiveServer2 level. Queries differing only in their\n" +
+        "string and numeric literals share the same shape, so the ASTs of queries repeatedly sent by\n" +
+        "dashboards or through prepared statements are reused with the literals rebound instead of\n" +
+        "being parsed again. 0 disables the cache."),
 
     HIVE_QUERY_RESULTS_CACHE_ENABLED("hive.query.results.cache.enabled", true,
         "If the query results cache is enabled. This will keep results of previously executed queries " +
@@ -148,6 +148,7 @@ public class HiveConnection implements java.sql.Connection {
   private TProtocolVersion protocol;
   private int fetchSize = HiveStatement.DEFAULT_FETCH_SIZE;
   private String initFile = null;
+  private boolean prefetchResults = false;
   private String wmPool = null, wmApp = null;
   private Properties clientInfo;
   private Subject loggedInSubject;
@@ -267,6 +268,9 @@ public HiveConnection(String uri, Properties info) throws SQLException {
     if (sessConfMap.containsKey(JdbcConnectionParams.FETCH_SIZE)) {
       fetchSize = Integer.parseInt(sessConfMap.get(JdbcConnectionParams.FETCH_SIZE));
     }
+    // The embedded service is called from the thread of the client, leave it alone
+    prefetchResults = !isEmbeddedMode
+        && Boolean.parseBoolean(sessConfMap.get(JdbcConnectionParams.PREFETCH_RESULTS));
     if (sessConfMap.containsKey(JdbcConnectionParams.INIT_FILE)) {
       initFile = sessConfMap.get(JdbcConnectionParams.INIT_FILE);
     }
@@ -1700,6 +1704,10 @@ public TProtocolVersion getProtocol() {
     return protocol;
   }
 
+  boolean isPrefetchResults() {
+    return prefetchResults;
+  }
+
   public static TCLIService.Iface newSynchronizedClient(
       TCLIService.Iface client) {
     return (TCLIService.Iface) Proxy.newProxyInstance(
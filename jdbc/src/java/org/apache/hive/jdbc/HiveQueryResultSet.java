@@ -20,6 +20,10 @@
 
 import static org.apache.hive.service.rpc.thrift.TCLIServiceConstants.TYPE_NAMES;
 
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -30,6 +34,11 @@
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hive.service.cli.RowSet;
@@ -64,6 +73,12 @@ public class HiveQueryResultSet extends HiveBaseResultSet {
 
   public static final Logger LOG = LoggerFactory.getLogger(HiveQueryResultSet.class);
 
+  private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(r -> {
+    Thread thread = new Thread(r, "HiveQueryResultSet-prefetch");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private TCLIService.Iface client;
   private TOperationHandle stmtHandle;
   private int maxRows;
@@ -77,6 +92,20 @@ public class HiveQueryResultSet extends HiveBaseResultSet {
   private boolean isScrollable = false;
   private boolean fetchFirst = false;
   private TGetOperationStatusResp operationStatus = null;
+  private boolean prefetch = false;
+  // The fetch of the batch following fetchedRows, when prefetching.
+  private Prefetch nextFetch = null;
+
+  /**
+   * A FetchResults call sent from the prefetch pool. While it runs it holds the client of the
+   * connection, so other calls on the connection, e.g. to cancel the statement, wait for it.
+   */
+  private static final class Prefetch {
+    // Set by whichever comes first of the pool thread starting the call and the result set
+    // discarding it, so that a discarded call is never sent.
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private Future<TFetchResultsResp> future;
+  }
 
   private final TProtocolVersion protocol;
 
@@ -100,10 +129,14 @@ public static class Builder {
     private int fetchSize = 50;
     private boolean emptyResultSet = false;
     private boolean isScrollable = false;
+    private boolean prefetch = false;
 
     public Builder(Statement statement) throws SQLException {
       this.statement = statement;
       this.connection = statement.getConnection();
+      if (connection instanceof HiveConnection) {
+        this.prefetch = ((HiveConnection) connection).isPrefetchResults();
+      }
     }
 
     public Builder(Connection connection) {
@@ -157,6 +190,15 @@ public Builder setScrollable(boolean setScrollable) {
       return this;
     }
 
+    /**
+     * Sets whether the next batch of results is fetched in the background while the current one
+     * is read. The client must be safe to call from several threads.
+     */
+    public Builder setPrefetch(boolean prefetch) {
+      this.prefetch = prefetch;
+      return this;
+    }
+
     public HiveQueryResultSet build() throws SQLException {
       return new HiveQueryResultSet(this);
     }
@@ -186,6 +228,7 @@ protected HiveQueryResultSet(Builder builder) throws SQLException {
       this.maxRows = 0;
     }
     this.isScrollable = builder.isScrollable;
+    this.prefetch = builder.prefetch;
     this.protocol = builder.getProtocolVersion();
   }
 
@@ -273,6 +316,8 @@ private void setSchema(List<String> colNames, List<String> colTypes,
 
   @Override
   public void close() throws SQLException {
+    // The operation is closed after the pending call anyway, the client is synchronized
+    discardPrefetched(false);
     if (this.statement != null && (this.statement instanceof HiveStatement)) {
       HiveStatement s = (HiveStatement) this.statement;
       s.closeClientOperation();
@@ -333,20 +378,44 @@ public boolean next() throws SQLException {
       if (fetchFirst) {
         // If we are asked to start from begining, clear the current fetched resultset
         orientation = TFetchOrientation.FETCH_FIRST;
+        discardPrefetched(true);
         fetchedRows = null;
         fetchedRowsItr = null;
         fetchFirst = false;
       }
       if (fetchedRows == null || !fetchedRowsItr.hasNext()) {
-        TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
-            orientation, fetchSize);
         TFetchResultsResp fetchResp;
-        fetchResp = client.FetchResults(fetchReq);
+        if (nextFetch != null) {
+          fetchResp = takePrefetched();
+        } else {
+          TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
+              orientation, fetchSize);
+          fetchResp = client.FetchResults(fetchReq);
+        }
         Utils.verifySuccessWithInfo(fetchResp.getStatus());
 
         TRowSet results = fetchResp.getResults();
         fetchedRows = RowSetFactory.create(results, protocol);
         fetchedRowsItr = fetchedRows.iterator();
+        if (prefetch && fetchedRows.numRows() > 0
+            && (maxRows <= 0 || rowsFetched + fetchedRows.numRows() < maxRows)) {
+          // Let the server produce the next batch while this one is read
+          TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
+              TFetchOrientation.FETCH_NEXT, fetchSize);
+          final TCLIService.Iface prefetchClient = client;
+          // The pool threads are shared by the connections, run as the caller, e.g. for Kerberos
+          final AccessControlContext context = AccessController.getContext();
+          final Prefetch fetch = new Prefetch();
+          fetch.future = PREFETCH_EXECUTOR.submit(() -> {
+            if (!fetch.claimed.compareAndSet(false, true)) {
+              return null;
+            }
+            return AccessController.doPrivileged(
+                (PrivilegedExceptionAction<TFetchResultsResp>) () -> prefetchClient.FetchResults(fetchReq),
+                context);
+          });
+          nextFetch = fetch;
+        }
       }
 
       if (!fetchedRowsItr.hasNext()) {
@@ -364,6 +433,46 @@ public boolean next() throws SQLException {
     return true;
   }
 
+  private TFetchResultsResp takePrefetched() throws Exception {
+    try {
+      return nextFetch.future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof PrivilegedActionException) {
+        cause = ((PrivilegedActionException) cause).getException();
+      }
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    } finally {
+      nextFetch = null;
+    }
+  }
+
+  /**
+   * Drops the pending prefetch, if any. A call not sent yet is skipped. One already sent is not
+   * interrupted, that would leave the transport in an unknown state.
+   * @param wait Whether to wait for a call already sent, so that the next call on the operation
+   *   is sent after it.
+   */
+  private void discardPrefetched(boolean wait) {
+    if (nextFetch != null) {
+      Prefetch fetch = nextFetch;
+      nextFetch = null;
+      if (fetch.claimed.compareAndSet(false, true) || !wait) {
+        return;
+      }
+      try {
+        fetch.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        LOG.debug("Discarded prefetch failed", e.getCause());
+      }
+    }
+  }
+
   @Override
   public ResultSetMetaData getMetaData() throws SQLException {
     if (isClosed) {
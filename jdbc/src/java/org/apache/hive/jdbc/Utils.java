@@ -130,6 +130,9 @@ public static class JdbcConnectionParams {
     // Set the fetchSize
     static final String FETCH_SIZE = "fetchSize";
     static final String INIT_FILE = "initFile";
+    // Fetch the next batch of results in the background while the current one is read. Other
+    // calls on the connection, e.g. to cancel a statement, may wait for a fetch in flight.
+    static final String PREFETCH_RESULTS = "prefetchResults";
     static final String WM_POOL = "wmPool";
     // Cookie prefix
     static final String HTTP_COOKIE_PREFIX = "http.cookie.";
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.jdbc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hive.service.rpc.thrift.TCLIService;
+import org.apache.hive.service.rpc.thrift.TCloseOperationReq;
+import org.apache.hive.service.rpc.thrift.TCloseOperationResp;
+import org.apache.hive.service.rpc.thrift.TColumn;
+import org.apache.hive.service.rpc.thrift.TFetchOrientation;
+import org.apache.hive.service.rpc.thrift.TFetchResultsReq;
+import org.apache.hive.service.rpc.thrift.TFetchResultsResp;
+import org.apache.hive.service.rpc.thrift.TI32Column;
+import org.apache.hive.service.rpc.thrift.TOperationHandle;
+import org.apache.hive.service.rpc.thrift.TProtocolVersion;
+import org.apache.hive.service.rpc.thrift.TRow;
+import org.apache.hive.service.rpc.thrift.TRowSet;
+import org.apache.hive.service.rpc.thrift.TStatus;
+import org.apache.hive.service.rpc.thrift.TStatusCode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestHiveQueryResultSet {
+  private static final int NUM_ROWS = 10;
+
+  private TCLIService.Iface client;
+  private HiveConnection connection;
+  // Position of the operation on the server
+  private final AtomicInteger position = new AtomicInteger();
+  // Blocks the fetches after the first one, when set
+  private volatile CountDownLatch fetchLatch;
+
+  @Before
+  public void setup() throws Exception {
+    connection = mock(HiveConnection.class);
+    when(connection.getProtocol()).thenReturn(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V10);
+    client = mock(TCLIService.Iface.class);
+    when(client.FetchResults(any(TFetchResultsReq.class))).thenAnswer(invocation -> {
+      TFetchResultsReq req = (TFetchResultsReq) invocation.getArguments()[0];
+      if (req.getOrientation() == TFetchOrientation.FETCH_FIRST) {
+        position.set(0);
+      } else if (position.get() > 0 && fetchLatch != null) {
+        fetchLatch.await();
+      }
+      int start = position.get();
+      int end = (int) Math.min(NUM_ROWS, start + req.getMaxRows());
+      position.set(end);
+      return fetchResults(start, end);
+    });
+    when(client.CloseOperation(any(TCloseOperationReq.class)))
+        .thenReturn(new TCloseOperationResp(new TStatus(TStatusCode.SUCCESS_STATUS)));
+  }
+
+  private static TFetchResultsResp fetchResults(int start, int end) {
+    List<Integer> values = new ArrayList<>();
+    for (int i = start; i < end; i++) {
+      values.add(i);
+    }
+    TRowSet rowSet = new TRowSet(0, new ArrayList<TRow>());
+    rowSet.addToColumns(TColumn.i32Val(new TI32Column(values, ByteBuffer.allocate(0))));
+    TFetchResultsResp resp = new TFetchResultsResp(new TStatus(TStatusCode.SUCCESS_STATUS));
+    resp.setResults(rowSet);
+    resp.setHasMoreRows(end < NUM_ROWS);
+    return resp;
+  }
+
+  private HiveQueryResultSet build(int maxRows) throws Exception {
+    return new HiveQueryResultSet.Builder(connection).setClient(client)
+        .setStmtHandle(new TOperationHandle()).setSchema(Arrays.asList("a"), Arrays.asList("int"))
+        .setFetchSize(3).setMaxRows(maxRows).setScrollable(true).setPrefetch(true).build();
+  }
+
+  private static List<Integer> readAll(HiveQueryResultSet rs) throws Exception {
+    List<Integer> rows = new ArrayList<>();
+    while (rs.next()) {
+      rows.add(rs.getInt(1));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    HiveQueryResultSet rs = build(0);
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), readAll(rs));
+    // 4 batches with rows, and the empty one ending the results
+    verify(client, times(5)).FetchResults(any(TFetchResultsReq.class));
+    rs.close();
+  }
+
+  @Test
+  public void testPrefetchMaxRows() throws Exception {
+    HiveQueryResultSet rs = build(5);
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), readAll(rs));
+    // The second batch reaches maxRows, nothing is fetched after it
+    verify(client, times(2)).FetchResults(any(TFetchResultsReq.class));
+    rs.close();
+  }
+
+  @Test
+  public void testPrefetchBeforeFirst() throws Exception {
+    HiveQueryResultSet rs = build(0);
+    rs.next();
+    rs.beforeFirst();
+    // The pending prefetch is sent before the fetch from the start, or not at all
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), readAll(rs));
+    rs.close();
+  }
+
+  @Test(timeout = 60000)
+  public void testPrefetchClose() throws Exception {
+    fetchLatch = new CountDownLatch(1);
+    HiveQueryResultSet rs = build(0);
+    rs.next();
+    // Does not wait for the blocked prefetch
+    rs.close();
+    verify(client).CloseOperation(any(TCloseOperationReq.class));
+    fetchLatch.countDown();
+  }
+}
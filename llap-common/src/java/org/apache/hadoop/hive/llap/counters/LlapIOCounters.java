@@ -38,7 +38,8 @@ public enum LlapIOCounters {
   HDFS_TIME_NS(false),
   CONSUMER_TIME_NS(false),
   IO_CPU_NS(false),
-  IO_USER_NS(false);
+  IO_USER_NS(false),
+  ROWS_FILTERED_BY_SARG(false);
 
   // flag to indicate if these counters are subject to change across different test runs
   private boolean testSafe;
@@ -57,6 +57,7 @@ public enum LlapDaemonExecutorInfo implements MetricsInfo {
   ExecutorPercentileTimeLost("Percentile cluster time wasted due to pre-emption"),
   ExecutorMaxPreemptionTimeToKill("Max time for killing pre-empted task"),
   ExecutorMaxPreemptionTimeLost("Max cluster time lost due to pre-emption"),
+  ExecutorPercentileQueueWaitTime("Percentile time spent by tasks in the wait queue before execution"),
   ExecutorTotalEvictedFromWaitQueue("Total number of tasks evicted from wait queue because of low priority"),
   ExecutorFallOffSuccessTimeLost("Total time lost in an executor completing after informing the AM - successful fragments"),
   ExecutorFallOffSuccessMaxTimeLost("Max value of time lost in an executor completing after informing the AM - successful fragments"),
@@ -528,6 +528,7 @@ public SubmissionState schedule(TaskRunnerCallable task) {
       if (evictedTask == null || !evictedTask.equals(taskWrapper)) {
         knownTasks.put(taskWrapper.getRequestId(), taskWrapper);
         taskWrapper.setIsInWaitQueue(true);
+        taskWrapper.setWaitQueueEnterTime(clock.getTime());
         task.setWmCountersQueued();
         if (LOG.isDebugEnabled()) {
           LOG.debug("{} added to wait queue. Current wait queue size={}", task.getRequestId(),
@@ -736,6 +737,10 @@ void tryScheduleUnderLock(final TaskWrapper taskWrapper) throws RejectedExecutio
     task.setWmCountersRunning();
     runningFragmentCount.incrementAndGet();
     taskWrapper.setIsInWaitQueue(false);
+    long waitQueueEnterTime = taskWrapper.getWaitQueueEnterTime();
+    if (waitQueueEnterTime != TaskWrapper.NO_WAIT_QUEUE_ENTER_TIME) {
+      metrics.addMetricsQueueWaitTime(clock.getTime() - waitQueueEnterTime);
+    }
 
     FutureCallback<TaskRunner2Result> wrappedCallback = createInternalCompletionListener(
       taskWrapper);
@@ -1128,6 +1133,10 @@ public static class TaskWrapper implements FinishableStateUpdateHandler {
     private final AtomicBoolean inPreemptionQueue = new AtomicBoolean(false);
     private final AtomicBoolean registeredForNotifications = new AtomicBoolean(false);
     private final TaskExecutorService taskExecutorService;
+    static final long NO_WAIT_QUEUE_ENTER_TIME = -1;
+
+    // Time the task was last offered to the wait queue; accessed under the scheduler lock.
+    private long waitQueueEnterTime = NO_WAIT_QUEUE_ENTER_TIME;
 
     public TaskWrapper(TaskRunnerCallable taskRunnerCallable, TaskExecutorService taskExecutorService) {
       this.taskRunnerCallable = taskRunnerCallable;
@@ -1192,6 +1201,14 @@ public void setIsInWaitQueue(boolean value) {
       this.inWaitQueue.set(value);
     }
 
+    public void setWaitQueueEnterTime(long value) {
+      this.waitQueueEnterTime = value;
+    }
+
+    public long getWaitQueueEnterTime() {
+      return waitQueueEnterTime;
+    }
+
     public void setIsInPreemptableQueue(boolean value) {
       this.inPreemptionQueue.set(value);
     }
@@ -23,6 +23,7 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -95,6 +96,7 @@ public class LlapIoImpl implements LlapIo<VectorizedRowBatch>, LlapIoDebugDump {
   // TODO: later, we may have a map
   private final ColumnVectorProducer orcCvp, genericCvp;
   private final ExecutorService executor;
+  private final ExecutorService decodeExecutor;
   private final LlapDaemonCacheMetrics cacheMetrics;
   private final LlapDaemonIOMetrics ioMetrics;
   private ObjectName buddyAllocatorMXBean;
@@ -214,10 +216,15 @@ public void debugDumpShort(StringBuilder sb) {
     executor = new StatsRecordingThreadPool(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
         new LinkedBlockingQueue<Runnable>(),
         new ThreadFactoryBuilder().setNameFormat("IO-Elevator-Thread-%d").setDaemon(true).build());
+    // Optional pool to decode columns in parallel; shared by all the IO threads.
+    int numDecodeThreads = HiveConf.getIntVar(conf, ConfVars.LLAP_IO_DECODE_THREADPOOL_SIZE);
+    decodeExecutor = numDecodeThreads <= 0 ? null : Executors.newFixedThreadPool(numDecodeThreads,
+        new ThreadFactoryBuilder().setNameFormat("IO-Decode-Thread-%d").setDaemon(true).build());
     FixedSizedObjectPool<IoTrace> tracePool = IoTrace.createTracePool(conf);
     // TODO: this should depends on input format and be in a map, or something.
     this.orcCvp = new OrcColumnVectorProducer(
-        metadataCache, dataCache, bufferManagerOrc, conf, cacheMetrics, ioMetrics, tracePool);
+        metadataCache, dataCache, bufferManagerOrc, conf, cacheMetrics, ioMetrics, tracePool,
+        decodeExecutor);
     this.genericCvp = isEncodeEnabled ? new GenericColumnVectorProducer(
         serdeCache, bufferManagerGeneric, conf, cacheMetrics, ioMetrics, tracePool) : null;
     LOG.info("LLAP IO initialized");
@@ -265,6 +272,9 @@ public void close() {
       buddyAllocatorMXBean = null;
     }
     executor.shutdownNow();
+    if (decodeExecutor != null) {
+      decodeExecutor.shutdownNow();
+    }
   }
 
 
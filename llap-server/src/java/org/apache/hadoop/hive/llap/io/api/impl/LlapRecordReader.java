@@ -39,7 +39,9 @@
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer;
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.Includes;
 import org.apache.hadoop.hive.llap.io.decode.ColumnVectorProducer.SchemaEvolutionFactory;
+import org.apache.hadoop.hive.llap.io.decode.OrcEncodedDataConsumer;
 import org.apache.hadoop.hive.llap.io.decode.ReadPipeline;
+import org.apache.hadoop.hive.llap.io.decode.SargRowFilter;
 import org.apache.hadoop.hive.llap.tezplugins.LlapTezUtils;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
@@ -197,6 +199,12 @@ private LlapRecordReader(MapWork mapWork, JobConf job, FileSplit split,
     // Create the consumer of encoded data; it will coordinate decoding to CVBs.
     feedback = rp = cvp.createReadPipeline(this, split, includes, sarg, counters, includes,
         sourceInputFormat, sourceSerDe, reporter, job, mapWork.getPathToPartitionInfo());
+
+    if (!isAcidFormat && rp instanceof OrcEncodedDataConsumer
+        && HiveConf.getBoolVar(job, ConfVars.LLAP_IO_SARG_ROW_FILTER_ENABLED)) {
+      ((OrcEncodedDataConsumer) rp).setRowFilter(SargRowFilter.create(sarg,
+          rbCtx.getRowColumnNames(), rbCtx.getRowColumnTypeInfos(), includes.getPhysicalColumnIds()));
+    }
   }
 
   private static int getQueueVar(ConfVars var, JobConf jobConf, Configuration daemonConf) {
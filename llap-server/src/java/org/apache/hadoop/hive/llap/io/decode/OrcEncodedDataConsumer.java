@@ -20,6 +20,12 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.VisibleForTesting;
 
 import org.apache.hadoop.hive.common.io.encoded.EncodedColumnBatch;
 import org.apache.hadoop.hive.llap.ConsumerFeedback;
@@ -74,6 +80,13 @@
   private final Includes includes;
   private TypeDescription[] batchSchemas;
   private boolean useDecimal64ColumnVectors;
+  // Shared pool to decode columns of a row group in parallel; null to decode on the IO thread.
+  private ExecutorService decodeExecutor;
+  // The number of vector batches decoded in parallel before they are handed downstream.
+  private static final int PARALLEL_DECODE_WINDOW = 4;
+  // Finds the batches without a candidate row before their other columns are decoded; null if none.
+  private SargRowFilter rowFilter;
+  private boolean[] isFilterColumn;
 
   public OrcEncodedDataConsumer(
     Consumer<ColumnVectorBatch> consumer, Includes includes, boolean skipCorrupt,
@@ -88,6 +101,16 @@ public void setUseDecimal64ColumnVectors(final boolean useDecimal64ColumnVectors
     this.useDecimal64ColumnVectors = useDecimal64ColumnVectors;
   }
 
+  public void setDecodeExecutor(final ExecutorService decodeExecutor) {
+    this.decodeExecutor = decodeExecutor;
+  }
+
+  public void setRowFilter(final SargRowFilter rowFilter) {
+    this.rowFilter = rowFilter;
+    this.isFilterColumn = rowFilter == null
+        ? null : rowFilter.getFilterColumns(includes.getPhysicalColumnIds().size());
+  }
+
   public void setFileMetadata(ConsumerFileMetadata f) {
     assert fileMetadata == null;
     fileMetadata = f;
@@ -142,6 +165,24 @@ protected void decodeBatch(OrcEncodedColumnBatch batch,
       }
       previousStripeIndex = currentStripeIndex;
 
+      if (rowFilter != null && !noIndex && rgIdx != OrcEncodedColumnBatch.ALL_RGS) {
+        decodeFilteredRowGroup(nonNullRowCount, downstreamConsumer);
+        LlapIoImpl.ORC_LOGGER.debug("Done with filtered decode");
+        counters.incrWallClockCounter(LlapIOCounters.DECODE_TIME_NS, startTime);
+        counters.incrCounter(LlapIOCounters.NUM_VECTOR_BATCHES, maxBatchesRG);
+        counters.incrCounter(LlapIOCounters.NUM_DECODED_BATCHES);
+        return;
+      }
+
+      if (decodeExecutor != null && columnReaders.length > 1) {
+        decodeColumnsInParallel(nonNullRowCount, downstreamConsumer);
+        LlapIoImpl.ORC_LOGGER.debug("Done with parallel decode");
+        counters.incrWallClockCounter(LlapIOCounters.DECODE_TIME_NS, startTime);
+        counters.incrCounter(LlapIOCounters.NUM_VECTOR_BATCHES, maxBatchesRG);
+        counters.incrCounter(LlapIOCounters.NUM_DECODED_BATCHES);
+        return;
+      }
+
       for (int i = 0; i < maxBatchesRG; i++) {
         // for last batch in row group, adjust the batch size
         if (i == maxBatchesRG - 1) {
@@ -153,53 +194,7 @@ protected void decodeBatch(OrcEncodedColumnBatch batch,
         // assert cvb.cols.length == batch.getColumnIxs().length; // Must be constant per split.
         cvb.size = batchSize;
         for (int idx = 0; idx < columnReaders.length; ++idx) {
-          TreeReader reader = columnReaders[idx];
-          if (cvb.cols[idx] == null) {
-            // Orc store rows inside a root struct (hive writes it this way).
-            // When we populate column vectors we skip over the root struct.
-            cvb.cols[idx] = createColumn(batchSchemas[idx], VectorizedRowBatch.DEFAULT_SIZE, useDecimal64ColumnVectors);
-          }
-          trace.logTreeReaderNextVector(idx);
-
-          /*
-           * Currently, ORC's TreeReaderFactory class does this:
-           *
-           *     public void nextBatch(VectorizedRowBatch batch,
-           *              int batchSize) throws IOException {
-           *       batch.cols[0].reset();
-           *       batch.cols[0].ensureSize(batchSize, false);
-           *       nextVector(batch.cols[0], null, batchSize);
-           *     }
-           *
-           * CONCERN:
-           *     For better performance, we'd like to *not* do a ColumnVector.reset()
-           *     which zeroes out isNull.  Why?  Because there are common cases where
-           *     ORC will *immediately* copy its null flags into the isNull array.  This is a
-           *     waste.
-           *
-           *     For correctness now we must do it for now.
-           *
-           *     The best solution is for ORC to manage the noNulls and isNull array itself
-           *     because it knows what NULLs the next set of rows contains.
-           *
-           *     Its management of the fields of ColumnVector is a little different than what we
-           *     must do for vector expressions.  For those, we must maintain the invariant that if
-           *     noNulls is true there are no NULLs in any part of the isNull array.  This is
-           *     because the next vector expression relies on the invariant.
-           *
-           *     Given that ORC (or any other producer) is providing *read-only* batches to the
-           *     consumer, what is important is that the isNull array through batch.size has
-           *     integrity with the noNulls flag.  So, if ORC is giving us 100 rows (for example)
-           *     and none of them are NULL, it can safely set or make sure the first 100 isNull
-           *     entries are false and safely set noNulls to true.  Any other NULLs (true entries)
-           *     in isNull are irrelevant because ORC owns the batch.  It just need to make sure
-           *     it doesn't get confused.
-           *
-           */
-          ColumnVector cv = cvb.cols[idx];
-          cv.reset();
-          cv.ensureSize(batchSize, false);
-          reader.nextVector(cv, null, batchSize);
+          decodeColumn(cvb, idx);
         }
 
         // we are done reading a batch, send it to consumer for processing
@@ -216,6 +211,228 @@ protected void decodeBatch(OrcEncodedColumnBatch batch,
     }
   }
 
+  /**
+   * Decodes the next cvb.size values of a column into the batch.
+   */
+  private void decodeColumn(ColumnVectorBatch cvb, int idx) throws IOException {
+    if (cvb.cols[idx] == null) {
+      // Orc store rows inside a root struct (hive writes it this way).
+      // When we populate column vectors we skip over the root struct.
+      cvb.cols[idx] = createColumn(batchSchemas[idx], VectorizedRowBatch.DEFAULT_SIZE, useDecimal64ColumnVectors);
+    }
+    trace.logTreeReaderNextVector(idx);
+
+    /*
+     * Currently, ORC's TreeReaderFactory class does this:
+     *
+     *     public void nextBatch(VectorizedRowBatch batch,
+     *              int batchSize) throws IOException {
+     *       batch.cols[0].reset();
+     *       batch.cols[0].ensureSize(batchSize, false);
+     *       nextVector(batch.cols[0], null, batchSize);
+     *     }
+     *
+     * CONCERN:
+     *     For better performance, we'd like to *not* do a ColumnVector.reset()
+     *     which zeroes out isNull.  Why?  Because there are common cases where
+     *     ORC will *immediately* copy its null flags into the isNull array.  This is a
+     *     waste.
+     *
+     *     For correctness now we must do it for now.
+     *
+     *     The best solution is for ORC to manage the noNulls and isNull array itself
+     *     because it knows what NULLs the next set of rows contains.
+     *
+     *     Its management of the fields of ColumnVector is a little different than what we
+     *     must do for vector expressions.  For those, we must maintain the invariant that if
+     *     noNulls is true there are no NULLs in any part of the isNull array.  This is
+     *     because the next vector expression relies on the invariant.
+     *
+     *     Given that ORC (or any other producer) is providing *read-only* batches to the
+     *     consumer, what is important is that the isNull array through batch.size has
+     *     integrity with the noNulls flag.  So, if ORC is giving us 100 rows (for example)
+     *     and none of them are NULL, it can safely set or make sure the first 100 isNull
+     *     entries are false and safely set noNulls to true.  Any other NULLs (true entries)
+     *     in isNull are irrelevant because ORC owns the batch.  It just need to make sure
+     *     it doesn't get confused.
+     *
+     */
+    ColumnVector cv = cvb.cols[idx];
+    cv.reset();
+    cv.ensureSize(cvb.size, false);
+    columnReaders[idx].nextVector(cv, null, cvb.size);
+  }
+
+  /**
+   * Decodes the vector batches of a row group when a row filter is set. The columns the filter
+   * reads are decoded first, for all the batches of the row group. The other columns are then
+   * only decoded up to the last batch that has a candidate row, and only the batches with a
+   * candidate row are handed downstream. The readers are repositioned for the next row group,
+   * so the rest of this one is never read; a row group without any candidate row only has its
+   * filter columns decoded.
+   */
+  private void decodeFilteredRowGroup(long rowCount,
+      Consumer<ColumnVectorBatch> downstreamConsumer) throws IOException, InterruptedException {
+    int batchCount = (int) (rowCount / VectorizedRowBatch.DEFAULT_SIZE);
+    int lastBatchSize = (int) (rowCount % VectorizedRowBatch.DEFAULT_SIZE);
+    if (lastBatchSize > 0) {
+      ++batchCount;
+    }
+    ColumnVectorBatch[] cvbs = new ColumnVectorBatch[batchCount];
+    boolean[] hasCandidateRow = new boolean[batchCount];
+    int lastCandidateIx = -1;
+    try {
+      for (int i = 0; i < batchCount; ++i) {
+        ColumnVectorBatch cvb = cvbs[i] = cvbPool.take();
+        cvb.size = (i == batchCount - 1 && lastBatchSize > 0)
+            ? lastBatchSize : VectorizedRowBatch.DEFAULT_SIZE;
+        for (int idx = 0; idx < columnReaders.length; ++idx) {
+          if (isFilterColumn[idx]) {
+            decodeColumn(cvb, idx);
+          }
+        }
+        hasCandidateRow[i] = rowFilter.hasCandidateRow(cvb);
+        if (hasCandidateRow[i]) {
+          lastCandidateIx = i;
+        } else {
+          counters.incrCounter(LlapIOCounters.ROWS_FILTERED_BY_SARG, cvb.size);
+        }
+      }
+      for (int i = 0; i <= lastCandidateIx; ++i) {
+        // Batches without a candidate row are still decoded to advance the readers.
+        for (int idx = 0; idx < columnReaders.length; ++idx) {
+          if (!isFilterColumn[idx]) {
+            decodeColumn(cvbs[i], idx);
+          }
+        }
+        if (hasCandidateRow[i]) {
+          ColumnVectorBatch cvb = cvbs[i];
+          cvbs[i] = null;
+          downstreamConsumer.consumeData(cvb);
+          counters.incrCounter(LlapIOCounters.ROWS_EMITTED, cvb.size);
+        }
+      }
+    } finally {
+      for (ColumnVectorBatch cvb : cvbs) {
+        if (cvb != null) {
+          cvbPool.offer(cvb);
+        }
+      }
+    }
+  }
+
+  /**
+   * Decodes the vector batches of a row group, with each column decoded by a separate task
+   * on the decode pool. Column readers have independent streams, so they can advance
+   * concurrently. The batches are decoded in windows of {@link #PARALLEL_DECODE_WINDOW}, and
+   * each window is handed downstream before the next one is taken, so that a row group with
+   * no index (or a whole stripe) does not hold all of its batches at once.
+   */
+  private void decodeColumnsInParallel(long rowCount,
+      Consumer<ColumnVectorBatch> downstreamConsumer) throws IOException, InterruptedException {
+    int batchCount = (int) (rowCount / VectorizedRowBatch.DEFAULT_SIZE);
+    int lastBatchSize = (int) (rowCount % VectorizedRowBatch.DEFAULT_SIZE);
+    if (lastBatchSize > 0) {
+      ++batchCount;
+    }
+    for (int first = 0; first < batchCount; first += PARALLEL_DECODE_WINDOW) {
+      ColumnVectorBatch[] cvbs =
+          new ColumnVectorBatch[Math.min(PARALLEL_DECODE_WINDOW, batchCount - first)];
+      for (int i = 0; i < cvbs.length; ++i) {
+        ColumnVectorBatch cvb = cvbPool.take();
+        cvb.size = (first + i == batchCount - 1 && lastBatchSize > 0)
+            ? lastBatchSize : VectorizedRowBatch.DEFAULT_SIZE;
+        for (int idx = 0; idx < columnReaders.length; ++idx) {
+          if (cvb.cols[idx] == null) {
+            cvb.cols[idx] = createColumn(batchSchemas[idx], VectorizedRowBatch.DEFAULT_SIZE, useDecimal64ColumnVectors);
+          }
+          // The trace is not thread-safe; record the reads here rather than in the decode tasks.
+          trace.logTreeReaderNextVector(idx);
+        }
+        cvbs[i] = cvb;
+      }
+      boolean isDecoded = false;
+      try {
+        decodeColumns(decodeExecutor, columnReaders, cvbs);
+        isDecoded = true;
+      } finally {
+        if (!isDecoded) {
+          for (ColumnVectorBatch cvb : cvbs) {
+            returnData(cvb);
+          }
+        }
+      }
+      for (ColumnVectorBatch cvb : cvbs) {
+        downstreamConsumer.consumeData(cvb);
+        counters.incrCounter(LlapIOCounters.ROWS_EMITTED, cvb.size);
+      }
+    }
+  }
+
+  /**
+   * Decodes the given batches with one task per column reader, and waits for all of the tasks.
+   * The tasks are always waited for, even after a failure or an interrupt, because the readers
+   * still use the source buffers that the caller releases afterwards. On interrupt, the tasks
+   * stop at the next batch; the interrupt flag is restored and InterruptedException is thrown
+   * once they are all done.
+   */
+  @VisibleForTesting
+  static void decodeColumns(ExecutorService executor, TreeReader[] readers,
+      final ColumnVectorBatch[] cvbs) throws IOException, InterruptedException {
+    final AtomicBoolean isStopped = new AtomicBoolean(false);
+    List<Future<Void>> futures = new ArrayList<>(readers.length);
+    for (int idx = 0; idx < readers.length; ++idx) {
+      final TreeReader reader = readers[idx];
+      final int colIx = idx;
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          for (ColumnVectorBatch cvb : cvbs) {
+            if (isStopped.get()) {
+              break;
+            }
+            ColumnVector cv = cvb.cols[colIx];
+            cv.reset();
+            cv.ensureSize(cvb.size, false);
+            reader.nextVector(cv, null, cvb.size);
+          }
+          return null;
+        }
+      }));
+    }
+    Throwable error = null;
+    InterruptedException interrupt = null;
+    for (Future<Void> future : futures) {
+      while (true) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (error == null) {
+            error = e.getCause();
+          }
+          isStopped.set(true);
+        } catch (InterruptedException e) {
+          if (interrupt == null) {
+            interrupt = e;
+          }
+          isStopped.set(true);
+          continue;
+        }
+        break;
+      }
+    }
+    if (interrupt != null) {
+      Thread.currentThread().interrupt();
+      throw interrupt;
+    }
+    if (error != null) {
+      if (error instanceof IOException) {
+        throw (IOException) error;
+      }
+      throw new IOException(error);
+    }
+  }
+
   private void createColumnReaders(OrcEncodedColumnBatch batch,
       ConsumerStripeMetadata stripeMetadata, TypeDescription fileSchema) throws IOException {
     TreeReaderFactory.Context context = new TreeReaderFactory.ReaderContext()
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.expressions.StringExpr;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument.TruthValue;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Evaluates the pushed down search argument against the rows of a batch in which only the
+ * columns the search argument refers to have been decoded. The ORC reader only uses the SARG
+ * to eliminate row groups based on their statistics; this lets the decoder find the batches of
+ * a surviving row group that have no candidate row, and skip decoding their other columns.
+ *
+ * Only leaves on integer, floating point and string columns are evaluated; every other leaf is
+ * treated as unknown (YES_NO_NULL), so the filter never drops a row the query could return.
+ * The filter operator above the table scan still evaluates the full predicate.
+ */
+public final class SargRowFilter {
+  private final SearchArgument sarg;
+  private final List<PredicateLeaf> leaves;
+  /** For each leaf, the index of its column in the read set; -1 if it cannot be evaluated. */
+  private final int[] leafColumns;
+  /** For each leaf, the literal and the literal list, converted for comparison. */
+  private final Object[] literals;
+  private final Object[][] literalLists;
+  private final TruthValue[] leafValues;
+
+  private SargRowFilter(SearchArgument sarg, int[] leafColumns) {
+    this.sarg = sarg;
+    this.leaves = sarg.getLeaves();
+    this.leafColumns = leafColumns;
+    this.leafValues = new TruthValue[leaves.size()];
+    this.literals = new Object[leaves.size()];
+    this.literalLists = new Object[leaves.size()][];
+    for (int i = 0; i < leafColumns.length; ++i) {
+      if (leafColumns[i] < 0) {
+        leafValues[i] = TruthValue.YES_NO_NULL;
+        continue;
+      }
+      PredicateLeaf leaf = leaves.get(i);
+      literals[i] = convertLiteral(leaf.getType(), leaf.getLiteral());
+      List<Object> literalList = leaf.getLiteralList();
+      if (literalList != null) {
+        literalLists[i] = new Object[literalList.size()];
+        for (int j = 0; j < literalList.size(); ++j) {
+          literalLists[i][j] = convertLiteral(leaf.getType(), literalList.get(j));
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates the filter for a read.
+   * @param sarg The search argument pushed down to the reader.
+   * @param columnNames Table column names, indexed by table column ID.
+   * @param columnTypes Table column types, indexed by table column ID.
+   * @param readColumnIds The table column IDs of the read set, in the order of the read batches.
+   * @return The filter, or null if none of the leaves can be evaluated per row.
+   */
+  public static SargRowFilter create(SearchArgument sarg, String[] columnNames, TypeInfo[] columnTypes,
+      List<Integer> readColumnIds) {
+    if (sarg == null) {
+      return null;
+    }
+    List<PredicateLeaf> leaves = sarg.getLeaves();
+    int[] leafColumns = new int[leaves.size()];
+    boolean hasEvaluableLeaf = false;
+    for (int i = 0; i < leaves.size(); ++i) {
+      leafColumns[i] = findColumn(leaves.get(i), columnNames, columnTypes, readColumnIds);
+      hasEvaluableLeaf = hasEvaluableLeaf || leafColumns[i] >= 0;
+    }
+    return hasEvaluableLeaf ? new SargRowFilter(sarg, leafColumns) : null;
+  }
+
+  private static int findColumn(PredicateLeaf leaf, String[] columnNames,
+      TypeInfo[] columnTypes, List<Integer> readColumnIds) {
+    if (!isSupportedLeaf(leaf)) {
+      return -1;
+    }
+    for (int ixInReadSet = 0; ixInReadSet < readColumnIds.size(); ++ixInReadSet) {
+      int columnId = readColumnIds.get(ixInReadSet);
+      if (columnId < columnNames.length && columnNames[columnId].equalsIgnoreCase(leaf.getColumnName())) {
+        return isMatchingType(leaf.getType(), columnTypes[columnId]) ? ixInReadSet : -1;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isSupportedLeaf(PredicateLeaf leaf) {
+    switch (leaf.getOperator()) {
+    case IS_NULL:
+      return true;
+    case EQUALS:
+    case NULL_SAFE_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_EQUALS:
+      return leaf.getLiteral() != null;
+    case IN:
+    case BETWEEN:
+      List<Object> literalList = leaf.getLiteralList();
+      if (literalList == null || literalList.isEmpty()
+          || (leaf.getOperator() == PredicateLeaf.Operator.BETWEEN && literalList.size() != 2)) {
+        return false;
+      }
+      for (Object literal : literalList) {
+        if (literal == null) {
+          return false;
+        }
+      }
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isMatchingType(PredicateLeaf.Type type, TypeInfo typeInfo) {
+    if (typeInfo.getCategory() != Category.PRIMITIVE) {
+      return false;
+    }
+    switch (((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory()) {
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+      return type == PredicateLeaf.Type.LONG;
+    case FLOAT:
+    case DOUBLE:
+      return type == PredicateLeaf.Type.FLOAT;
+    case STRING:
+      return type == PredicateLeaf.Type.STRING;
+    default:
+      return false;
+    }
+  }
+
+  private static Object convertLiteral(PredicateLeaf.Type type, Object literal) {
+    if (literal == null) {
+      return null;
+    }
+    switch (type) {
+    case LONG:
+      return ((Number) literal).longValue();
+    case FLOAT:
+      return ((Number) literal).doubleValue();
+    case STRING:
+      return literal.toString().getBytes(StandardCharsets.UTF_8);
+    default:
+      throw new AssertionError("Unexpected type " + type);
+    }
+  }
+
+  /**
+   * @param columnCount The number of columns in the read set.
+   * @return For each column of the read set, whether the filter reads it.
+   */
+  boolean[] getFilterColumns(int columnCount) {
+    boolean[] result = new boolean[columnCount];
+    for (int column : leafColumns) {
+      if (column >= 0) {
+        result[column] = true;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Evaluates the filter against the rows of the batch, until one of them may pass.
+   * Only the columns returned by {@link #getFilterColumns(int)} need to be decoded.
+   * @return true if at least one row of the batch may pass the filter.
+   */
+  boolean hasCandidateRow(ColumnVectorBatch cvb) {
+    for (int row = 0; row < cvb.size; ++row) {
+      for (int i = 0; i < leafColumns.length; ++i) {
+        if (leafColumns[i] >= 0) {
+          leafValues[i] = evaluateLeaf(i, cvb.cols[leafColumns[i]], row);
+        }
+      }
+      if (sarg.evaluate(leafValues).isNeeded()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private TruthValue evaluateLeaf(int leafIx, ColumnVector cv, int row) {
+    PredicateLeaf.Operator operator = leaves.get(leafIx).getOperator();
+    int ix = cv.isRepeating ? 0 : row;
+    boolean isNull = !cv.noNulls && cv.isNull[ix];
+    if (operator == PredicateLeaf.Operator.IS_NULL) {
+      return isNull ? TruthValue.YES : TruthValue.NO;
+    }
+    if (isNull) {
+      return operator == PredicateLeaf.Operator.NULL_SAFE_EQUALS ? TruthValue.NO : TruthValue.NULL;
+    }
+    switch (operator) {
+    case EQUALS:
+    case NULL_SAFE_EQUALS:
+      return toTruthValue(compare(cv, ix, literals[leafIx]) == 0);
+    case LESS_THAN:
+      return toTruthValue(compare(cv, ix, literals[leafIx]) < 0);
+    case LESS_THAN_EQUALS:
+      return toTruthValue(compare(cv, ix, literals[leafIx]) <= 0);
+    case IN:
+      for (Object literal : literalLists[leafIx]) {
+        if (compare(cv, ix, literal) == 0) {
+          return TruthValue.YES;
+        }
+      }
+      return TruthValue.NO;
+    case BETWEEN:
+      return toTruthValue(compare(cv, ix, literalLists[leafIx][0]) >= 0
+          && compare(cv, ix, literalLists[leafIx][1]) <= 0);
+    default:
+      return TruthValue.YES_NO_NULL;
+    }
+  }
+
+  private static TruthValue toTruthValue(boolean value) {
+    return value ? TruthValue.YES : TruthValue.NO;
+  }
+
+  private static int compare(ColumnVector cv, int ix, Object literal) {
+    if (cv instanceof LongColumnVector) {
+      return Long.compare(((LongColumnVector) cv).vector[ix], (Long) literal);
+    } else if (cv instanceof DoubleColumnVector) {
+      double value = ((DoubleColumnVector) cv).vector[ix], other = (Double) literal;
+      // Same semantics as the vectorized comparison expressions, rather than Double.compare.
+      return value < other ? -1 : (value > other ? 1 : 0);
+    } else {
+      BytesColumnVector bcv = (BytesColumnVector) cv;
+      byte[] other = (byte[]) literal;
+      return StringExpr.compare(bcv.vector[ix], bcv.start[ix], bcv.length[ix],
+          other, 0, other.length);
+    }
+  }
+}
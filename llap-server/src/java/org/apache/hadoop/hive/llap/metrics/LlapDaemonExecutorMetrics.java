@@ -154,6 +154,8 @@ public class LlapDaemonExecutorMetrics implements MetricsSource {
   final MutableQuantiles[] percentileTimeToKill;
   @Metric
   final MutableQuantiles[] percentileTimeLost;
+  @Metric
+  final MutableQuantiles[] percentileQueueWaitTime;
 
   @Metric
   MutableCounterLong fallOffNumCompletedFragments;
@@ -191,6 +193,7 @@ private LlapDaemonExecutorMetrics(String displayName, JvmMetrics jm, String sess
     final int len = intervals == null ? 0 : intervals.length;
     this.percentileTimeToKill = new MutableQuantiles[len];
     this.percentileTimeLost = new MutableQuantiles[len];
+    this.percentileQueueWaitTime = new MutableQuantiles[len];
     for (int i=0; i<len; i++) {
       int interval = intervals[i];
       percentileTimeToKill[i] = registry.newQuantiles(
@@ -201,6 +204,10 @@ private LlapDaemonExecutorMetrics(String displayName, JvmMetrics jm, String sess
           LlapDaemonExecutorInfo.ExecutorMaxPreemptionTimeLost.name() + "_" + interval + "s",
           LlapDaemonExecutorInfo.ExecutorMaxPreemptionTimeLost.description(),
           "ops", "latency", interval);
+      percentileQueueWaitTime[i] = registry.newQuantiles(
+          LlapDaemonExecutorInfo.ExecutorPercentileQueueWaitTime.name() + "_" + interval + "s",
+          LlapDaemonExecutorInfo.ExecutorPercentileQueueWaitTime.description(),
+          "ops", "latency", interval);
     }
 
     this.executorNames = Maps.newHashMap();
@@ -351,6 +358,12 @@ public void addMetricsQueueTime(long queueTime) {
     }
   }
 
+  public void addMetricsQueueWaitTime(long value) {
+    for (MutableQuantiles q : percentileQueueWaitTime) {
+      q.add(value);
+    }
+  }
+
   public void addMetricsRunningTime(long runningTime) {
     if (this.runningTime != null) {
       this.runningTime.addValue(runningTime);
@@ -437,6 +450,10 @@ private void getExecutorStats(MetricsRecordBuilder rb) {
     for (MutableQuantiles q : percentileTimeLost) {
       q.snapshot(rb, true);
     }
+
+    for (MutableQuantiles q : percentileQueueWaitTime) {
+      q.snapshot(rb, true);
+    }
   }
 
   private void updateThreadMetrics(MetricsRecordBuilder rb) {
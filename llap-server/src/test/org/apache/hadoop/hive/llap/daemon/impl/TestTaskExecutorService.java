@@ -21,6 +21,8 @@
 import static org.apache.hadoop.hive.llap.daemon.impl.TaskExecutorTestHelpers.createSubmitWorkRequestProto;
 import static org.apache.hadoop.hive.llap.daemon.impl.TaskExecutorTestHelpers.createTaskWrapper;
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -619,6 +621,64 @@ public void testCapacityMetricsModification() {
     verify(mockMetrics).setWaitQueueSize(5);
   }
 
+  @Test(timeout = 10000)
+  public void testQueueWaitTime() throws InterruptedException {
+    MockRequest r1 = createMockRequest(1, 1, 100, 200, true, 20000l, false);
+    MockRequest r2 = createMockRequest(2, 1, 100, 200, true, 20000l, false);
+
+    ControlledClock clock = new ControlledClock(new SystemClock());
+    clock.setTime(1000);
+    TaskExecutorServiceForTest taskExecutorService = new TaskExecutorServiceForTest(
+        1, 2, ShortestJobFirstComparator.class.getName(), false, mockMetrics, clock);
+    taskExecutorService.init(new Configuration());
+    taskExecutorService.start();
+
+    try {
+      // r1 gets the free executor right after entering the wait queue.
+      taskExecutorService.schedule(r1);
+      awaitStartAndSchedulerRun(r1, taskExecutorService);
+      verify(mockMetrics).addMetricsQueueWaitTime(0L);
+
+      // r2 waits for the only executor until r1 is done.
+      clock.setTime(2000);
+      taskExecutorService.schedule(r2);
+      clock.setTime(2500);
+      r1.complete();
+      r1.awaitEnd();
+      awaitStartAndSchedulerRun(r2, taskExecutorService);
+      verify(mockMetrics).addMetricsQueueWaitTime(500L);
+
+      r2.complete();
+      r2.awaitEnd();
+    } finally {
+      taskExecutorService.shutDown(false);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testQueueWaitTimeNotStamped() throws InterruptedException {
+    MockRequest r1 = createMockRequest(1, 1, 100, 200, true, 20000l, false);
+
+    ControlledClock clock = new ControlledClock(new SystemClock());
+    clock.setTime(1000);
+    TaskExecutorServiceForTest taskExecutorService = new TaskExecutorServiceForTest(
+        1, 2, ShortestJobFirstComparator.class.getName(), false, mockMetrics, clock);
+    taskExecutorService.init(new Configuration());
+    taskExecutorService.start();
+
+    try {
+      // A task that never went through the wait queue records no wait.
+      taskExecutorService.tryScheduleUnderLock(new TaskWrapper(r1, taskExecutorService));
+      r1.awaitStart();
+      verify(mockMetrics, never()).addMetricsQueueWaitTime(anyLong());
+
+      r1.complete();
+      r1.awaitEnd();
+    } finally {
+      taskExecutorService.shutDown(false);
+    }
+  }
+
   private void runPreemptionGraceTest(
       MockRequest victim1, MockRequest victim2, int time) throws InterruptedException {
     MockRequest preemptor = createMockRequest(3, 1, 100, 100, true, 20000l, false);
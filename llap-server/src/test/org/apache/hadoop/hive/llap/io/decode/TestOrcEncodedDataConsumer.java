@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.orc.impl.TreeReaderFactory.TreeReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TestOrcEncodedDataConsumer {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testDecodeColumns() throws Exception {
+    TreeReader[] readers = new TreeReader[3];
+    for (int i = 0; i < readers.length; ++i) {
+      readers[i] = countingReader(i * 100, null);
+    }
+    ColumnVectorBatch[] cvbs = createBatches(4, readers.length);
+    cvbs[3].size = 5;
+
+    OrcEncodedDataConsumer.decodeColumns(executor, readers, cvbs);
+
+    for (int b = 0; b < cvbs.length; ++b) {
+      for (int c = 0; c < readers.length; ++c) {
+        LongColumnVector cv = (LongColumnVector) cvbs[b].cols[c];
+        // Every column is read in batch order, with the size of its batch.
+        assertEquals(c * 100 + b, cv.vector[0]);
+        assertEquals(cvbs[b].size, cv.vector[1]);
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeColumnsError() throws Exception {
+    AtomicInteger active = new AtomicInteger();
+    TreeReader failing = mock(TreeReader.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        throw new IOException("corrupt stream");
+      }
+    }).when(failing).nextVector(any(ColumnVector.class), any(boolean[].class), anyInt());
+    TreeReader[] readers = { failing, countingReader(0, active) };
+
+    try {
+      OrcEncodedDataConsumer.decodeColumns(executor, readers, createBatches(4, readers.length));
+      fail("Expected the decode error");
+    } catch (IOException e) {
+      assertEquals("corrupt stream", e.getMessage());
+    }
+    // The other column is done with the buffers once the error is thrown.
+    assertEquals(0, active.get());
+  }
+
+  @Test
+  public void testDecodeColumnsInterrupted() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger calls = new AtomicInteger();
+    TreeReader blocking = mock(TreeReader.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        calls.incrementAndGet();
+        started.countDown();
+        release.await();
+        return null;
+      }
+    }).when(blocking).nextVector(any(ColumnVector.class), any(boolean[].class), anyInt());
+    final TreeReader[] readers = { blocking, countingReader(0, null) };
+    final ColumnVectorBatch[] cvbs = createBatches(4, readers.length);
+
+    final AtomicReference<Throwable> thrown = new AtomicReference<>();
+    final AtomicReference<Boolean> isInterrupted = new AtomicReference<>();
+    Thread decoder = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          OrcEncodedDataConsumer.decodeColumns(executor, readers, cvbs);
+        } catch (Throwable t) {
+          thrown.set(t);
+        }
+        isInterrupted.set(Thread.currentThread().isInterrupted());
+      }
+    });
+    decoder.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    decoder.interrupt();
+
+    // The decoder keeps waiting while a column is still reading.
+    decoder.join(200);
+    assertTrue(decoder.isAlive());
+
+    release.countDown();
+    decoder.join(10000);
+    assertTrue(thrown.get() instanceof InterruptedException);
+    assertTrue(isInterrupted.get());
+    // The blocked column stops at the next batch.
+    assertEquals(1, calls.get());
+  }
+
+  private static ColumnVectorBatch[] createBatches(int count, int columnCount) {
+    ColumnVectorBatch[] cvbs = new ColumnVectorBatch[count];
+    for (int i = 0; i < count; ++i) {
+      cvbs[i] = new ColumnVectorBatch(columnCount);
+      cvbs[i].size = 10;
+      for (int c = 0; c < columnCount; ++c) {
+        cvbs[i].cols[c] = new LongColumnVector();
+      }
+    }
+    return cvbs;
+  }
+
+  /**
+   * A reader that writes its next value and the requested size into the first two rows.
+   */
+  private static TreeReader countingReader(final long base, final AtomicInteger active)
+      throws IOException {
+    final AtomicInteger next = new AtomicInteger();
+    TreeReader reader = mock(TreeReader.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        if (active != null) {
+          active.incrementAndGet();
+        }
+        try {
+          LongColumnVector cv = (LongColumnVector) invocation.getArguments()[0];
+          cv.vector[0] = base + next.getAndIncrement();
+          cv.vector[1] = (Integer) invocation.getArguments()[2];
+          if (active != null) {
+            Thread.sleep(10);
+          }
+        } finally {
+          if (active != null) {
+            active.decrementAndGet();
+          }
+        }
+        return null;
+      }
+    }).when(reader).nextVector(any(ColumnVector.class), any(boolean[].class), anyInt());
+    return reader;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap.io.decode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.llap.io.api.impl.ColumnVectorBatch;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSargRowFilter {
+
+  private static final String[] NAMES = { "a", "b", "c" };
+  private static final TypeInfo[] TYPES = { TypeInfoFactory.intTypeInfo,
+      TypeInfoFactory.stringTypeInfo, TypeInfoFactory.timestampTypeInfo };
+
+  private static ColumnVectorBatch createBatch() {
+    // Read set is (b, a); the filter must map the columns by name.
+    ColumnVectorBatch cvb = new ColumnVectorBatch(2, 4);
+    BytesColumnVector b = new BytesColumnVector(4);
+    b.initBuffer();
+    String[] values = { "x", "y", "z", "y" };
+    for (int i = 0; i < values.length; ++i) {
+      b.setVal(i, values[i].getBytes(StandardCharsets.UTF_8));
+    }
+    LongColumnVector a = new LongColumnVector(4);
+    a.vector[0] = 1;
+    a.vector[1] = 5;
+    a.vector[2] = 10;
+    a.noNulls = false;
+    a.isNull[3] = true;
+    cvb.cols[0] = b;
+    cvb.cols[1] = a;
+    return cvb;
+  }
+
+  @Test
+  public void testMatch() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+        .lessThan("a", PredicateLeaf.Type.LONG, 10L)
+        .equals("b", PredicateLeaf.Type.STRING, "y").end().build();
+    SargRowFilter filter = SargRowFilter.create(sarg, NAMES, TYPES, Arrays.asList(1, 0));
+    Assert.assertNotNull(filter);
+    Assert.assertTrue(filter.hasCandidateRow(createBatch()));
+    Assert.assertTrue(Arrays.equals(new boolean[] { true, true }, filter.getFilterColumns(2)));
+  }
+
+  @Test
+  public void testFilterColumns() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+        .in("b", PredicateLeaf.Type.STRING, "x", "q").end().build();
+    SargRowFilter filter = SargRowFilter.create(sarg, NAMES, TYPES, Arrays.asList(1, 0));
+    Assert.assertTrue(Arrays.equals(new boolean[] { true, false }, filter.getFilterColumns(2)));
+
+    // Only the filter column is decoded; the other one is not looked at.
+    ColumnVectorBatch cvb = createBatch();
+    cvb.cols[1] = null;
+    Assert.assertTrue(filter.hasCandidateRow(cvb));
+  }
+
+  @Test
+  public void testNoMatch() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+        .between("a", PredicateLeaf.Type.LONG, 20L, 30L).end().build();
+    SargRowFilter filter = SargRowFilter.create(sarg, NAMES, TYPES, Arrays.asList(1, 0));
+    Assert.assertFalse(filter.hasCandidateRow(createBatch()));
+  }
+
+  @Test
+  public void testUnsupportedLeafKeepsRows() {
+    SearchArgument sarg = SearchArgumentFactory.newBuilder().startOr()
+        .isNull("a", PredicateLeaf.Type.LONG)
+        .lessThan("c", PredicateLeaf.Type.TIMESTAMP, new java.sql.Timestamp(0)).end().build();
+    SargRowFilter filter = SargRowFilter.create(sarg, NAMES, TYPES, Arrays.asList(1, 0));
+    Assert.assertTrue(filter.hasCandidateRow(createBatch()));
+
+    sarg = SearchArgumentFactory.newBuilder().startAnd()
+        .lessThan("c", PredicateLeaf.Type.TIMESTAMP, new java.sql.Timestamp(0)).end().build();
+    Assert.assertNull(SargRowFilter.create(sarg, NAMES, TYPES, Arrays.asList(1, 0)));
+  }
+}
@@ -28,6 +28,7 @@
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorNumExecutorsAvailable;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorNumExecutorsConfigured;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorNumQueuedRequests;
+import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorPercentileQueueWaitTime;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorWaitQueueSize;
 import static org.apache.hadoop.hive.llap.metrics.LlapDaemonExecutorInfo.ExecutorWaitQueueSizeConfigured;
 import static org.junit.Assert.assertEquals;
@@ -188,6 +189,26 @@ public void testSimpleAndDerivedMetricsCalculations() {
     assertTrue((waitQueueSize + numExecutorsAvailable - queuedRequests) == data.get(ExecutorAvailableFreeSlots.name()));
   }
 
+  @Test(timeout = 20000)
+  public void testQueueWaitTimePercentiles() throws InterruptedException {
+    LlapDaemonExecutorMetrics metrics = LlapDaemonExecutorMetrics.create("test", "test", 1, 1,
+        new int[]{1}, 1, 1, 1);
+    for (long i = 1; i <= 100; i++) {
+      metrics.addMetricsQueueWaitTime(i);
+    }
+
+    // The percentiles are published once their 1 second interval has rolled over.
+    String name = ExecutorPercentileQueueWaitTime.name() + "_1s";
+    Map<String, Long> data = Maps.newHashMap();
+    while (!Long.valueOf(100).equals(data.get(name + "NumOps"))) {
+      Thread.sleep(100);
+      data.clear();
+      metrics.getMetrics(new DumpingMetricsCollector(data), true);
+    }
+    assertEquals(50, data.get(name + "50thPercentileLatency"), 5);
+    assertEquals(99, data.get(name + "99thPercentileLatency"), 5);
+  }
+
   private TimedAverageMetrics generateTimedAverageMetrics(int windowDataSize, long windowTimeSize, int dataNum,
       long firstData, long dataDelta, long firstTime, long timeDelta) {
     TimedAverageMetrics metrics =
@@ -264,6 +264,9 @@ public void setError(Void v, Throwable t) {
 
   private final int numSchedulableTasksPerNode;
 
+  // Whether locality misses should prefer nodes that already ran work for the requested host.
+  private final boolean cacheAffinityEnabled;
+  private final int cacheAffinitySummarySize;
 
   // when there are no live nodes in the cluster and this timeout elapses the query is failed
   private final long timeout;
@@ -390,6 +393,11 @@ public LlapTaskSchedulerService(TaskSchedulerContext taskSchedulerContext, Clock
 
     this.localityDelayConf = new LocalityDelayConf(localityDelayMs);
 
+    this.cacheAffinityEnabled =
+        HiveConf.getBoolVar(conf, ConfVars.LLAP_TASK_SCHEDULER_CACHE_AFFINITY_ENABLED);
+    this.cacheAffinitySummarySize =
+        HiveConf.getIntVar(conf, ConfVars.LLAP_TASK_SCHEDULER_CACHE_AFFINITY_SUMMARY_SIZE);
+
     this.timeoutMonitor = new SchedulerTimeoutMonitor();
     this.timeout = HiveConf.getTimeVar(conf,
         ConfVars.LLAP_DAEMON_TASK_SCHEDULER_TIMEOUT_SECONDS, TimeUnit.MILLISECONDS);
@@ -1509,6 +1517,12 @@ private SelectHostResult selectHost(TaskInfo request) {
 
       // miss in locality request, try picking consistent location with fallback to random selection
       final String firstRequestedHost = requestedHosts[0];
+      if (cacheAffinityEnabled) {
+        NodeInfo affinityNode = selectByCacheAffinity(firstRequestedHost, activeNodesWithFreeSlots);
+        if (affinityNode != null) {
+          return new SelectHostResult(affinityNode, true);
+        }
+      }
       int requestedHostIdx = -1;
       for (int i = 0; i < allNodes.size(); i++) {
         NodeInfo nodeInfo = allNodes.get(i);
@@ -1553,6 +1567,25 @@ private SelectHostResult selectHost(TaskInfo request) {
     }
   }
 
+  /**
+   * Picks a node that has previously run work requested for the given host. Such a node is the
+   * most likely one to hold that host's share of the data in its cache, e.g. after the requested
+   * host was lost or the cluster was resized.
+   * @return the node to use, or null if none of the free nodes has a matching summary.
+   */
+  private NodeInfo selectByCacheAffinity(String requestedHost, List<NodeInfo> nodesWithFreeSlots) {
+    for (NodeInfo nodeInfo : nodesWithFreeSlots) {
+      if (nodeInfo.hasCacheAffinity(requestedHost)) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Assigning {} based on cache affinity when looking for {}",
+              nodeInfo.toShortString(), requestedHost);
+        }
+        return nodeInfo;
+      }
+    }
+    return null;
+  }
+
   private SelectHostResult randomSelection(final List<NodeInfo> nodesWithFreeSlots) {
     if (nodesWithFreeSlots.isEmpty()) {
       return SELECT_HOST_RESULT_DELAYED_RESOURCES;
@@ -2037,6 +2070,12 @@ private ScheduleResult scheduleTask(TaskInfo taskInfo, Resource totalResource,
           taskInfo, nodeInfo.toShortString(), container.getId());
       dagStats.registerTaskAllocated(taskInfo.requestedHosts, taskInfo.requestedRacks,
           nodeInfo.getHost());
+      if (selectHostResult.isCacheAffinity) {
+        dagStats.registerCacheAffinityAllocation();
+      }
+      if (cacheAffinityEnabled) {
+        registerCacheAffinity(taskInfo.requestedHosts, nodeInfo);
+      }
       taskInfo.setAssignmentInfo(nodeInfo, container.getId(), clock.getTime());
       registerRunningTask(taskInfo);
       nodeInfo.registerTaskScheduled();
@@ -2047,6 +2086,15 @@ private ScheduleResult scheduleTask(TaskInfo taskInfo, Resource totalResource,
     return selectHostResult.scheduleResult;
   }
 
+  private void registerCacheAffinity(String[] requestedHosts, NodeInfo nodeInfo) {
+    if (requestedHosts == null || requestedHosts.length == 0
+        || requestedHosts[0].equals(nodeInfo.getHost())
+        || nodeInfo.hasCacheAffinity(requestedHosts[0])) {
+      return;
+    }
+    nodeInfo.registerCacheAffinity(requestedHosts[0], cacheAffinitySummarySize);
+  }
+
   // Removes tasks from the runningList and sends out a preempt request to the system.
   // Subsequent tasks will be scheduled again once the de-allocate request for the preempted
   // task is processed.
@@ -2509,6 +2557,10 @@ static class NodeInfo implements Delayed {
 
     private String shortStringBase;
 
+    // The requested hosts this node ran non-local work for, least recently used first.
+    // Accessed under this.
+    private LinkedHashMap<String, Boolean> cacheAffinitySummary = null;
+
     /**
      * Create a NodeInfo bound to a service instance
      *  @param serviceInstance         the associated serviceInstance
@@ -2582,6 +2634,23 @@ void updateLlapServiceInstance(LlapServiceInstance serviceInstance, int numSched
       shortStringBase = setupShortStringBase();
     }
 
+    synchronized void registerCacheAffinity(String requestedHost, final int maxEntries) {
+      if (cacheAffinitySummary == null) {
+        cacheAffinitySummary = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > maxEntries;
+          }
+        };
+      }
+      cacheAffinitySummary.put(requestedHost, Boolean.TRUE);
+    }
+
+    synchronized boolean hasCacheAffinity(String requestedHost) {
+      // get() rather than containsKey() so that a hit counts as a use of the entry.
+      return cacheAffinitySummary != null && cacheAffinitySummary.get(requestedHost) != null;
+    }
+
     void resetExpireInformation() {
       expireTimeMillis = -1;
       hadCommFailure = false;
@@ -2755,6 +2824,7 @@ static class StatsPerDag {
     int numCommFailures = 0;
     int numDelayedAllocations = 0;
     int numPreemptedTasks = 0;
+    int numCacheAffinityAllocations = 0;
     Map<String, AtomicInteger> localityBasedNumAllocationsPerHost = new HashMap<>();
     Map<String, AtomicInteger> numAllocationsPerHost = new HashMap<>();
 
@@ -2766,6 +2836,7 @@ public String toString() {
       sb.append("NumRequestsWithlocation=").append(numRequestsWithLocation).append(", ");
       sb.append("NumLocalAllocations=").append(numLocalAllocations).append(",");
       sb.append("NumNonLocalAllocations=").append(numNonLocalAllocations).append(",");
+      sb.append("NumCacheAffinityAllocations=").append(numCacheAffinityAllocations).append(",");
       sb.append("NumTotalAllocations=").append(numTotalAllocations).append(",");
       sb.append("NumRequestsWithoutLocation=").append(numRequestsWithoutLocation).append(", ");
       sb.append("NumRejectedTasks=").append(numRejectedTasks).append(", ");
@@ -2822,6 +2893,10 @@ void registerDelayedAllocation() {
       numDelayedAllocations++;
     }
 
+    void registerCacheAffinityAllocation() {
+      numCacheAffinityAllocations++;
+    }
+
     private void _registerAllocationInHostMap(String host, Map<String, AtomicInteger> hostMap) {
       AtomicInteger val = hostMap.get(host);
       if (val == null) {
@@ -3048,15 +3123,23 @@ public int compare(TaskInfo o1, TaskInfo o2) {
   private static class SelectHostResult {
     final NodeInfo nodeInfo;
     final ScheduleResult scheduleResult;
+    // Whether the node was picked by selectByCacheAffinity.
+    final boolean isCacheAffinity;
 
     SelectHostResult(NodeInfo nodeInfo) {
+      this(nodeInfo, false);
+    }
+
+    SelectHostResult(NodeInfo nodeInfo, boolean isCacheAffinity) {
       this.nodeInfo = nodeInfo;
       this.scheduleResult = ScheduleResult.SCHEDULED;
+      this.isCacheAffinity = isCacheAffinity;
     }
 
     SelectHostResult(ScheduleResult scheduleResult) {
       this.nodeInfo = null;
       this.scheduleResult = scheduleResult;
+      this.isCacheAffinity = false;
     }
   }
 
@@ -51,6 +51,7 @@
 import org.apache.hadoop.hive.llap.registry.impl.InactiveServiceInstance;
 import org.apache.hadoop.hive.llap.registry.impl.LlapFixedRegistryImpl;
 import org.apache.hadoop.hive.llap.testhelpers.ControlledClock;
+import org.apache.hadoop.hive.llap.tezplugins.LlapTaskSchedulerService.NodeInfo;
 import org.apache.hadoop.hive.llap.tezplugins.LlapTaskSchedulerService.TaskInfo;
 import org.apache.hadoop.hive.llap.tezplugins.LlapTaskSchedulerService.TaskInfo.State;
 import org.apache.hadoop.hive.llap.tezplugins.helpers.MonotonicClock;
@@ -1066,6 +1067,100 @@ public void testHostPreferenceMissesConsistentRollover() throws IOException, Int
     }
   }
 
+  @Test(timeout = 10000)
+  public void testHostPreferenceMissesCacheAffinity() throws IOException, InterruptedException {
+    Priority priority1 = Priority.newInstance(1);
+
+    String[] hostsKnown = new String[]{HOST1, HOST2, HOST3};
+    String[] hostsH1 = new String[]{HOST1};
+    String[] hostsH2 = new String[]{HOST2};
+    TestTaskSchedulerServiceWrapper tsWrapper =
+      new TestTaskSchedulerServiceWrapper(2000, hostsKnown, 1, 0, 0l, false, hostsKnown, true, true);
+    try {
+      TezTaskAttemptID task1 = TestTaskSchedulerServiceWrapper.generateTaskAttemptId();
+      Object clientCookie1 = "cookie1";
+
+      TezTaskAttemptID task2 = TestTaskSchedulerServiceWrapper.generateTaskAttemptId();
+      Object clientCookie2 = "cookie2";
+
+      TezTaskAttemptID task3 = TestTaskSchedulerServiceWrapper.generateTaskAttemptId();
+      Object clientCookie3 = "cookie3";
+
+      TezTaskAttemptID task4 = TestTaskSchedulerServiceWrapper.generateTaskAttemptId();
+      Object clientCookie4 = "cookie4";
+
+      tsWrapper.controlScheduler(true);
+      tsWrapper.allocateTask(task1, hostsH1, priority1, clientCookie1);
+      tsWrapper.allocateTask(task2, hostsH2, priority1, clientCookie2);
+      tsWrapper.allocateTask(task3, hostsH1, priority1, clientCookie3);
+
+      while (true) {
+        tsWrapper.signalSchedulerRun();
+        tsWrapper.awaitSchedulerRun();
+        if (tsWrapper.ts.dagStats.numTotalAllocations == 3) {
+          break;
+        }
+      }
+      // 3rd task requested host1, got host3 in consistent order as host1 and host2 are full
+      assertEquals(0, tsWrapper.ts.dagStats.numCacheAffinityAllocations);
+
+      tsWrapper.deallocateTask(task2, true, TaskAttemptEndReason.CONTAINER_EXITED);
+      tsWrapper.deallocateTask(task3, true, TaskAttemptEndReason.CONTAINER_EXITED);
+
+      tsWrapper.allocateTask(task4, hostsH1, priority1, clientCookie4);
+      while (true) {
+        tsWrapper.signalSchedulerRun();
+        tsWrapper.awaitSchedulerRun();
+        if (tsWrapper.ts.dagStats.numTotalAllocations == 4) {
+          break;
+        }
+      }
+
+      ArgumentCaptor<Object> argumentCaptor = ArgumentCaptor.forClass(Object.class);
+      ArgumentCaptor<Container> argumentCaptor2 = ArgumentCaptor.forClass(Container.class);
+      verify(tsWrapper.mockAppCallback, times(4))
+        .taskAllocated(argumentCaptor.capture(), any(Object.class), argumentCaptor2.capture());
+      assertEquals(task1, argumentCaptor.getAllValues().get(0));
+      assertEquals(task2, argumentCaptor.getAllValues().get(1));
+      assertEquals(task3, argumentCaptor.getAllValues().get(2));
+      assertEquals(task4, argumentCaptor.getAllValues().get(3));
+      assertEquals(HOST1, argumentCaptor2.getAllValues().get(0).getNodeId().getHost());
+      assertEquals(HOST2, argumentCaptor2.getAllValues().get(1).getNodeId().getHost());
+      assertEquals(HOST3, argumentCaptor2.getAllValues().get(2).getNodeId().getHost());
+      // 4th task requested host1, got host3 which ran host1's work before, rather than host2
+      // which is next in consistent order
+      assertEquals(HOST3, argumentCaptor2.getAllValues().get(3).getNodeId().getHost());
+
+      assertEquals(1, tsWrapper.ts.dagStats.numCacheAffinityAllocations);
+      assertEquals(2, tsWrapper.ts.dagStats.numLocalAllocations);
+      assertEquals(2, tsWrapper.ts.dagStats.numNonLocalAllocations);
+    } finally {
+      tsWrapper.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCacheAffinitySummaryEviction() {
+    LlapServiceInstance serviceInstance = mock(LlapServiceInstance.class);
+    doReturn(HOST1).when(serviceInstance).getHost();
+    doReturn("host-" + HOST1).when(serviceInstance).getWorkerIdentity();
+    doReturn(Resource.newInstance(100, 1)).when(serviceInstance).getResource();
+    NodeInfo nodeInfo = new NodeInfo(serviceInstance, null, new MonotonicClock(), 1, null);
+
+    assertFalse(nodeInfo.hasCacheAffinity(HOST2));
+    nodeInfo.registerCacheAffinity(HOST2, 2);
+    nodeInfo.registerCacheAffinity(HOST3, 2);
+    assertTrue(nodeInfo.hasCacheAffinity(HOST3));
+    // A hit makes host2 the most recently used entry.
+    assertTrue(nodeInfo.hasCacheAffinity(HOST2));
+
+    // The summary is full, so the least recently used host is dropped.
+    nodeInfo.registerCacheAffinity(HOST4, 2);
+    assertFalse(nodeInfo.hasCacheAffinity(HOST3));
+    assertTrue(nodeInfo.hasCacheAffinity(HOST2));
+    assertTrue(nodeInfo.hasCacheAffinity(HOST4));
+  }
+
   @Test(timeout = 10000)
   public void testHostPreferenceMissesConsistentPartialAlive() throws IOException, InterruptedException {
     Priority priority1 = Priority.newInstance(1);
@@ -1966,6 +2061,14 @@ private static class TestTaskSchedulerServiceWrapper {
       int waitQueueSize, long localityDelayMs, boolean controlledDelayedTaskQueue, String[] liveHosts,
       boolean useMockRegistry) throws
       IOException, InterruptedException {
+      this(nodeDisableTimeoutMillis, hosts, numExecutors, waitQueueSize, localityDelayMs, controlledDelayedTaskQueue,
+        liveHosts, useMockRegistry, false);
+    }
+
+    TestTaskSchedulerServiceWrapper(long nodeDisableTimeoutMillis, String[] hosts, int numExecutors,
+      int waitQueueSize, long localityDelayMs, boolean controlledDelayedTaskQueue, String[] liveHosts,
+      boolean useMockRegistry, boolean cacheAffinityEnabled) throws
+      IOException, InterruptedException {
       conf = new Configuration();
       conf.setStrings(ConfVars.LLAP_DAEMON_SERVICE_HOSTS.varname, hosts);
       conf.setInt(ConfVars.LLAP_DAEMON_NUM_EXECUTORS.varname, numExecutors);
@@ -1975,6 +2078,7 @@ private static class TestTaskSchedulerServiceWrapper {
       conf.setBoolean(LlapFixedRegistryImpl.FIXED_REGISTRY_RESOLVE_HOST_NAMES, false);
       conf.setLong(ConfVars.LLAP_TASK_SCHEDULER_LOCALITY_DELAY.varname, localityDelayMs);
       conf.set(ConfVars.LLAP_TASK_SCHEDULER_AM_REGISTRY_NAME.varname, "");
+      conf.setBoolean(ConfVars.LLAP_TASK_SCHEDULER_CACHE_AFFINITY_ENABLED.varname, cacheAffinityEnabled);
 
       doReturn(appAttemptId).when(mockAppCallback).getApplicationAttemptId();
       doReturn(11111l).when(mockAppCallback).getCustomClusterIdentifier();
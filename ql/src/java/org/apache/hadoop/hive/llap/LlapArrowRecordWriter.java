@@ -79,9 +79,10 @@ public void write(K key, V value) throws IOException {
       VectorSchemaRoot vectorSchemaRoot = arrowWrapperWritable.getVectorSchemaRoot();
       arrowStreamWriter = new ArrowStreamWriter(vectorSchemaRoot, null, out);
       allocator = arrowWrapperWritable.getAllocator();
-      this.out.setAllocator(allocator);
       rootVector = arrowWrapperWritable.getRootVector();
     }
     arrowStreamWriter.writeBatch();
+    //The batch is written from the vectors' own buffers, which are reused for the next batch
+    out.flush();
   }
 }
@@ -19,13 +19,13 @@
 package org.apache.hadoop.hive.llap;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.Semaphore;
-import org.apache.arrow.memory.BufferAllocator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +37,11 @@
  * and {@link io.netty.channel.ChannelHandlerContext}.
  * Additionally provides a form of flow-control by limiting the number of
  * queued async writes.
+ * Writes are only queued on the channel; callers are expected to invoke
+ * {@link #flush()} once a logical unit (e.g. an Arrow batch) has been written,
+ * so that the many small writes of a batch go out together.
+ * The queued writes wrap the caller's buffers instead of copying them, so the
+ * caller must not modify or release written buffers until flush() returns.
  */
 public class WritableByteChannelAdapter implements WritableByteChannel {
 
@@ -49,7 +54,6 @@ public class WritableByteChannelAdapter implements WritableByteChannel {
   private final Semaphore writeResources;
   private boolean closed = false;
   private final String id;
-  private BufferAllocator allocator;
 
   private ChannelFutureListener writeListener = new ChannelFutureListener() {
     @Override
@@ -84,21 +88,32 @@ public WritableByteChannelAdapter(ChannelHandlerContext chc, int maxPendingWrite
     this.id = id;
   }
 
-  public void setAllocator(BufferAllocator allocator) {
-    this.allocator = allocator;
-  }
-
   @Override
   public int write(ByteBuffer src) throws IOException {
     int size = src.remaining();
     //Down the semaphore or block until available
-    takeWriteResources(1);
-    ByteBuf buf = allocator.buffer(size);
-    buf.writeBytes(src);
-    chc.writeAndFlush(buf).addListener(writeListener);
+    if (!writeResources.tryAcquire()) {
+      //Queued writes only complete once flushed; flush before blocking on them
+      chc.flush();
+      takeWriteResources(1);
+    }
+    //Wrap the remaining bytes rather than copying them; flush() waits for the write
+    ByteBuf buf = Unpooled.wrappedBuffer(src);
+    src.position(src.limit());
+    chc.write(buf).addListener(writeListener);
     return size;
   }
 
+  /**
+   * Flushes all writes queued on the channel so far and waits for them to complete,
+   * after which the buffers passed to {@link #write(ByteBuffer)} can be reused.
+   */
+  public void flush() throws IOException {
+    chc.flush();
+    takeWriteResources(maxPendingWrites);
+    writeResources.release(maxPendingWrites);
+  }
+
   @Override
   public boolean isOpen() {
     return chc.channel().isOpen();
@@ -113,6 +128,7 @@ public void close() throws IOException {
     closed = true;
     //Block until all semaphore resources are released
     //by outstanding async writes
+    chc.flush();
     takeWriteResources(maxPendingWrites);
 
     try {
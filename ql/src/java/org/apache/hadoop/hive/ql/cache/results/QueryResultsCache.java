@@ -783,18 +783,29 @@ private boolean hasSpaceForCacheEntry(CacheEntry entry, long size) {
     return true;
   }
 
-  private CacheEntry findEntryToRemove() {
+  /**
+   * @param size Space to free.
+   * @return The valid entries to remove to free the space, least recently used first,
+   *         or null if removing all of them would not be enough.
+   */
+  private List<CacheEntry> findEntriesToRemove(long size) {
+    List<CacheEntry> entriesToRemove = new ArrayList<>();
+    long freedSize = 0;
     // Entries should be in LRU order in the keyset iterator.
     Set<CacheEntry> entries = lru.keySet();
     synchronized (lru) {
       for (CacheEntry removalCandidate : entries) {
+        if (freedSize >= size) {
+          break;
+        }
         if (removalCandidate.getStatus() != CacheEntryStatus.VALID) {
           continue;
         }
-        return removalCandidate;
+        entriesToRemove.add(removalCandidate);
+        freedSize += removalCandidate.size;
       }
     }
-    return null;
+    return freedSize >= size ? entriesToRemove : null;
   }
 
   private boolean clearSpaceForCacheEntry(CacheEntry entry, long size) {
@@ -805,20 +816,21 @@ private boolean clearSpaceForCacheEntry(CacheEntry entry, long size) {
     LOG.info("Clearing space for cache entry for query: [{}] with size {}",
         entry.getQueryText(), size);
 
-    CacheEntry removalCandidate;
-    while ((removalCandidate = findEntryToRemove()) != null) {
+    // Only remove entries if that makes enough room, rather than emptying the cache for an entry
+    // which would not fit anyway.
+    List<CacheEntry> entriesToRemove = findEntriesToRemove(cacheSize + size - maxCacheSize);
+    if (entriesToRemove == null) {
+      LOG.info("Could not free enough space for cache entry for query: [{}] withe size {}",
+          entry.getQueryText(), size);
+      return false;
+    }
+    for (CacheEntry removalCandidate : entriesToRemove) {
       LOG.info("Removing entry: {}", removalCandidate);
       removeEntry(removalCandidate);
       // TODO: Should we wait for the entry to actually be deleted from HDFS? Would have to
       // poll the reader count, waiting for it to reach 0, at which point cleanup should occur.
-      if (hasSpaceForCacheEntry(entry, size)) {
-        return true;
-      }
     }
-
-    LOG.info("Could not free enough space for cache entry for query: [{}] withe size {}",
-        entry.getQueryText(), size);
-    return false;
+    return hasSpaceForCacheEntry(entry, size);
   }
 
   private static void addToEntryMap(Map<String, Set<CacheEntry>> entryMap,
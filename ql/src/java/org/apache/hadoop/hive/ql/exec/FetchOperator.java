@@ -20,6 +20,7 @@
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -29,6 +30,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.hadoop.conf.Configurable;
@@ -73,6 +78,7 @@
 import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.util.StringUtils;
 import org.apache.hive.common.util.AnnotationUtils;
 import org.apache.hive.common.util.ReflectionUtil;
@@ -81,6 +87,7 @@
 
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * FetchTask implementation.
@@ -118,6 +125,9 @@ public class FetchOperator implements Serializable {
   private transient Deserializer currSerDe;
   private transient Converter ObjectConverter;
   private transient RecordReader<WritableComparable, Writable> currRecReader;
+  // Next split to read and its reader, opened ahead when reading the results of a query.
+  private transient FetchInputFormatSplit nextSplit;
+  private transient Future<RecordReader<WritableComparable, Writable>> nextRecReader;
 
   private transient JobConf job;
   private transient WritableComparable key;
@@ -216,6 +226,9 @@ public void setWork(FetchWork work) {
    */
   private static final Map<String, InputFormat> inputFormats = new HashMap<String, InputFormat>();
 
+  private static final ExecutorService READ_AHEAD_EXECUTOR = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fetch-read-ahead-%d").build());
+
   public static InputFormat getInputFormatFromCache(
       Class<? extends InputFormat> inputFormatClass, Configuration conf) throws IOException {
     if (Configurable.class.isAssignableFrom(inputFormatClass) ||
@@ -332,7 +345,7 @@ private void ensureCorrectSchemaEvolutionConfigs(JobConf conf) {
   }
 
   private RecordReader<WritableComparable, Writable> getRecordReader() throws Exception {
-    if (!iterSplits.hasNext()) {
+    if (nextRecReader == null && !iterSplits.hasNext()) {
       List<FetchInputFormatSplit> splits = getNextSplits();
       if (splits == null) {
         return null;
@@ -360,9 +373,25 @@ private RecordReader<WritableComparable, Writable> getRecordReader() throws Exce
       }
     }
 
-    final FetchInputFormatSplit target = iterSplits.next();
-
-    final RecordReader<WritableComparable, Writable> reader = target.getRecordReader(job);
+    final FetchInputFormatSplit target;
+    final RecordReader<WritableComparable, Writable> reader;
+    if (nextRecReader != null) {
+      target = nextSplit;
+      reader = takeNextRecordReader();
+    } else {
+      target = iterSplits.next();
+      reader = target.getRecordReader(job);
+    }
+    if (iterSplits.hasNext() && isReadAhead()) {
+      // The job is only modified when moving to the next path, once all of its splits are read.
+      final FetchInputFormatSplit next = iterSplits.next();
+      // The pool threads are shared by the sessions, open the reader as the current user.
+      final UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+      nextSplit = next;
+      nextRecReader = READ_AHEAD_EXECUTOR.submit(() -> ugi.doAs(
+          (PrivilegedExceptionAction<RecordReader<WritableComparable, Writable>>) () ->
+              next.getRecordReader(job)));
+    }
     if (hasVC || work.getSplitSample() != null) {
       currRecReader = new HiveRecordReader<WritableComparable, Writable>(reader, job) {
         @Override
@@ -387,6 +416,38 @@ public boolean doNext(WritableComparable key, Writable value) throws IOException
     return currRecReader;
   }
 
+  /**
+   * Only the results of queries are read ahead. Their readers don't depend on per thread state,
+   * unlike the ones providing virtual columns or sampling.
+   */
+  private boolean isReadAhead() {
+    return !work.isSourceTable() && !hasVC && work.getSplitSample() == null
+        && HiveConf.getBoolVar(job, HiveConf.ConfVars.HIVEFETCHTASKREADAHEAD);
+  }
+
+  private RecordReader<WritableComparable, Writable> takeNextRecordReader() throws Exception {
+    try {
+      return nextRecReader.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    } finally {
+      nextRecReader = null;
+    }
+  }
+
+  private void closeNextRecordReader() {
+    if (nextRecReader != null) {
+      try {
+        takeNextRecordReader().close();
+      } catch (Exception e) {
+        LOG.debug("Failed to open or close the reader opened ahead", e);
+      }
+    }
+  }
+
   private List<FetchInputFormatSplit> getNextSplits() throws Exception {
     while (getNextPath()) {
       // not using FileInputFormat.setInputPaths() here because it forces a connection to the
@@ -649,6 +710,7 @@ public void clearFetchContext() throws HiveException {
         currRecReader.close();
         currRecReader = null;
       }
+      closeNextRecordReader();
       closeOperator();
       if (context != null) {
         context.clear();
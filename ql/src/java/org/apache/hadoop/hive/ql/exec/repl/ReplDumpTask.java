@@ -280,8 +280,12 @@ private Long incrementalDump(Path dumpRoot, DumpMetaData dmd, Path cmRoot, Hive
         new ReplEventFilter(work.replScope),
         new EventBoundaryFilter(work.eventFrom, work.eventTo));
 
-    EventUtils.MSClientNotificationFetcher evFetcher
-        = new EventUtils.MSClientNotificationFetcher(hiveDb);
+    EventUtils.NotificationFetcher evFetcher = new EventUtils.MSClientNotificationFetcher(hiveDb);
+    EventUtils.PrefetchingNotificationFetcher prefetchingFetcher = null;
+    if (conf.getBoolVar(HiveConf.ConfVars.REPL_DUMP_PREFETCH_EVENTS)) {
+      prefetchingFetcher = new EventUtils.PrefetchingNotificationFetcher(evFetcher, conf);
+      evFetcher = prefetchingFetcher;
+    }
 
     EventUtils.NotificationEventIterator evIter = new EventUtils.NotificationEventIterator(
         evFetcher, work.eventFrom, work.maxEventLimit(), evFilter);
@@ -301,11 +305,17 @@ private Long incrementalDump(Path dumpRoot, DumpMetaData dmd, Path cmRoot, Hive
             evFetcher.getDbNotificationEventsCount(work.eventFrom, dbName, work.eventTo, maxEventLimit),
             work.eventFrom, work.eventTo, maxEventLimit);
     replLogger.startLog();
-    while (evIter.hasNext()) {
-      NotificationEvent ev = evIter.next();
-      lastReplId = ev.getEventId();
-      Path evRoot = new Path(dumpRoot, String.valueOf(lastReplId));
-      dumpEvent(ev, evRoot, cmRoot, hiveDb);
+    try {
+      while (evIter.hasNext()) {
+        NotificationEvent ev = evIter.next();
+        lastReplId = ev.getEventId();
+        Path evRoot = new Path(dumpRoot, String.valueOf(lastReplId));
+        dumpEvent(ev, evRoot, cmRoot, hiveDb);
+      }
+    } finally {
+      if (prefetchingFetcher != null) {
+        prefetchingFetcher.close();
+      }
     }
 
     replLogger.endLog(lastReplId.toString());
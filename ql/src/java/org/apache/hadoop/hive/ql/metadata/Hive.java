@@ -1418,6 +1418,36 @@ public Table getTable(final String dbName, final String tableName, boolean throw
       throw new HiveException("Unable to fetch table " + tableName + ". " + e.getMessage(), e);
     }
 
+    fixTable(tTable);
+    return new Table(tTable);
+  }
+
+  /**
+   * Returns metadata of the tables of a database, in a single metastore call.
+   *
+   * @param dbName
+   *          the name of the database
+   * @param tableNames
+   *          the names of the tables
+   * @return the tables which exist, in no particular order
+   * @throws HiveException
+   */
+  public List<Table> getTableObjects(String dbName, List<String> tableNames) throws HiveException {
+    List<org.apache.hadoop.hive.metastore.api.Table> tTables;
+    try {
+      tTables = getMSC().getTableObjectsByName(dbName, tableNames);
+    } catch (Exception e) {
+      throw new HiveException("Unable to fetch tables " + tableNames + ". " + e.getMessage(), e);
+    }
+    List<Table> tables = new ArrayList<>(tTables.size());
+    for (org.apache.hadoop.hive.metastore.api.Table tTable : tTables) {
+      fixTable(tTable);
+      tables.add(new Table(tTable));
+    }
+    return tables;
+  }
+
+  private static void fixTable(org.apache.hadoop.hive.metastore.api.Table tTable) {
     // For non-views, we need to do some extra fixes
     if (!TableType.VIRTUAL_VIEW.toString().equals(tTable.getTableType())) {
       // Fix the non-printable chars
@@ -1445,8 +1475,6 @@ public Table getTable(final String dbName, final String tableName, boolean throw
             org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe.class.getName());
       }
     }
-
-    return new Table(tTable);
   }
 
   /**
@@ -1671,12 +1699,11 @@ private List<RelOptMaterialization> filterAugmentMaterializedViews(List<RelOptMa
           }
           // We will rewrite it to include the filters on transaction list
           // so we can produce partial rewritings.
-          // This would be costly since we are doing it for every materialized view
-          // that is outdated, but it only happens for more than one materialized view
-          // if rewriting with outdated materialized views is enabled (currently
-          // disabled by default).
+          // This is done for every materialized view that is outdated, but it only
+          // needs additional write ids from the metastore if the materialized view
+          // reads tables that the query does not.
           materialization = augmentMaterializationWithTimeInformation(
-              materialization, validTxnsList, new ValidTxnWriteIdList(
+              materialization, validTxnsList, currentTxnWriteIds, new ValidTxnWriteIdList(
                   creationMetadata.getValidTxnList()));
         }
         result.add(materialization);
@@ -1865,7 +1892,7 @@ private List<RelOptMaterialization> getValidMaterializedViews(List<Table> materi
               // We will rewrite it to include the filters on transaction list
               // so we can produce partial rewritings
               materialization = augmentMaterializationWithTimeInformation(
-                  materialization, validTxnsList, new ValidTxnWriteIdList(
+                  materialization, validTxnsList, currentTxnWriteIds, new ValidTxnWriteIdList(
                       creationMetadata.getValidTxnList()));
             }
             result.add(materialization);
@@ -1887,7 +1914,7 @@ materialization, validTxnsList, new ValidTxnWriteIdList(
             // We will rewrite it to include the filters on transaction list
             // so we can produce partial rewritings
             materialization = augmentMaterializationWithTimeInformation(
-                materialization, validTxnsList, new ValidTxnWriteIdList(
+                materialization, validTxnsList, currentTxnWriteIds, new ValidTxnWriteIdList(
                     creationMetadata.getValidTxnList()));
           }
           result.add(materialization);
@@ -1978,10 +2005,14 @@ public static Boolean isOutdatedMaterializedView(Table materializedViewTable, fi
   /**
    * Method to enrich the materialization query contained in the input with
    * its invalidation.
+   *
+   * @param queryTxnWriteIds Write ids of the tables of the query for its snapshot, reused
+   *   if they include all the tables of the materialization.
    */
   private static RelOptMaterialization augmentMaterializationWithTimeInformation(
       RelOptMaterialization materialization, String validTxnsList,
-      ValidTxnWriteIdList materializationTxnList) throws LockException {
+      ValidTxnWriteIdList queryTxnWriteIds, ValidTxnWriteIdList materializationTxnList)
+      throws LockException {
     // Extract tables used by the query which will in turn be used to generate
     // the corresponding txn write ids
     List<String> tablesUsed = new ArrayList<>();
@@ -1995,8 +2026,8 @@ public void visit(RelNode node, int ordinal, RelNode parent) {
         super.visit(node, ordinal, parent);
       }
     }.go(materialization.queryRel);
-    ValidTxnWriteIdList currentTxnList =
-        SessionState.get().getTxnMgr().getValidWriteIds(tablesUsed, validTxnsList);
+    ValidTxnWriteIdList currentTxnList = getMaterializationTxnWriteIds(tablesUsed, validTxnsList,
+        queryTxnWriteIds, SessionState.get().getTxnMgr());
     // Augment
     final RexBuilder rexBuilder = materialization.queryRel.getCluster().getRexBuilder();
     final HepProgramBuilder augmentMaterializationProgram = new HepProgramBuilder()
@@ -2009,6 +2040,21 @@ public void visit(RelNode node, int ordinal, RelNode parent) {
         null, materialization.qualifiedTableName);
   }
 
+  /**
+   * @return The write ids of the query if they include all the tables used by the
+   *   materialization, otherwise the write ids of these tables for the snapshot.
+   */
+  @VisibleForTesting
+  static ValidTxnWriteIdList getMaterializationTxnWriteIds(List<String> tablesUsed,
+      String validTxnsList, ValidTxnWriteIdList queryTxnWriteIds, HiveTxnManager txnMgr)
+      throws LockException {
+    if (queryTxnWriteIds != null && tablesUsed.stream()
+        .allMatch(tableName -> queryTxnWriteIds.getTableValidWriteIdList(tableName) != null)) {
+      return queryTxnWriteIds;
+    }
+    return txnMgr.getValidWriteIds(tablesUsed, validTxnsList);
+  }
+
   public List<Table> getAllMaterializedViewObjectsForRewriting() throws HiveException {
     try {
       return Lists.transform(getMSC().getAllMaterializedViewObjectsForRewriting(),
@@ -3609,6 +3655,23 @@ public List<Partition> getPartitions(Table tbl) throws HiveException {
     }
   }
 
+  /**
+   * Get all the partitions lazily, for callers that can process them incrementally. Only the
+   * partition names are fetched up front; the partitions themselves are fetched in batches of
+   * hive.metastore.batch.retrieve.max as the iterator advances, so that neither side has to build
+   * a single response with all the partitions of a huge table. Partitions dropped after the names
+   * were listed are skipped.
+   * @param tbl table for which partitions are needed
+   * @return partition objects, in the order of their names
+   */
+  public PartitionIterable getAllPartitionsIterable(Table tbl) throws HiveException {
+    if (!tbl.isPartitioned()) {
+      return new PartitionIterable(Collections.singletonList(new Partition(tbl)));
+    }
+    return new PartitionIterable(this, tbl, null,
+        HiveConf.getIntVar(conf, ConfVars.METASTORE_BATCH_RETRIEVE_MAX));
+  }
+
   /**
    * Get all the partitions; unlike {@link #getPartitions(Table)}, does not include auth.
    * @param tbl table for which partitions are needed
@@ -3619,6 +3682,14 @@ public Set<Partition> getAllPartitionsOf(Table tbl) throws HiveException {
       return Sets.newHashSet(new Partition(tbl));
     }
 
+    if (HiveConf.getBoolVar(conf, ConfVars.METASTORE_BATCH_RETRIEVE_ALL_PARTITIONS)) {
+      Set<Partition> parts = new LinkedHashSet<Partition>();
+      for (Partition part : getAllPartitionsIterable(tbl)) {
+        parts.add(part);
+      }
+      return parts;
+    }
+
     List<org.apache.hadoop.hive.metastore.api.Partition> tParts;
     try {
       tParts = getMSC().listPartitions(tbl.getDbName(), tbl.getTableName(), (short)-1);
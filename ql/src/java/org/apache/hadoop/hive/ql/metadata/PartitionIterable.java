@@ -23,6 +23,10 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * PartitionIterable - effectively a lazy Iterable&lt;Partition&gt;
@@ -46,6 +50,8 @@
  */
 public class PartitionIterable implements Iterable<Partition> {
 
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionIterable.class);
+
   @Override
   public Iterator<Partition> iterator() {
     return new Iterator<Partition>(){
@@ -73,7 +79,12 @@ public boolean hasNext() {
         if (currType == Type.LIST_PROVIDED){
           return ptnsIterator.hasNext();
         } else {
-          return ((batchIter != null) && batchIter.hasNext()) || partitionNamesIter.hasNext();
+          // A batch may come back short, or even empty, if partitions were dropped after their
+          // names were listed.
+          while (((batchIter == null) || !batchIter.hasNext()) && partitionNamesIter.hasNext()){
+            getNextBatch();
+          }
+          return (batchIter != null) && batchIter.hasNext();
         }
       }
 
@@ -84,8 +95,8 @@ public Partition next() {
           return ptnsIterator.next();
         }
 
-        if ((batchIter == null) || !batchIter.hasNext()){
-          getNextBatch();
+        if (!hasNext()){
+          throw new NoSuchElementException();
         }
 
         return batchIter.next();
@@ -98,11 +109,17 @@ private void getNextBatch() {
           nameBatch.add(partitionNamesIter.next());
           batchCounter++;
         }
+        List<Partition> batch;
         try {
-          batchIter = db.getPartitionsByNames(table, nameBatch, getColStats).iterator();
+          batch = db.getPartitionsByNames(table, nameBatch, getColStats);
         } catch (HiveException e) {
           throw new RuntimeException(e);
         }
+        if (batch.size() < nameBatch.size()){
+          LOG.warn("{} of {} partitions of {} were dropped after their names were listed, skipping them",
+              nameBatch.size() - batch.size(), nameBatch.size(), table.getCompleteName());
+        }
+        batchIter = batch.iterator();
       }
 
       @Override
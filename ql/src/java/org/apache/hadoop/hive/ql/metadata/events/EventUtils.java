@@ -18,6 +18,7 @@
  */
 package org.apache.hadoop.hive.ql.metadata.events;
 
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.NotificationEvent;
 import org.apache.hadoop.hive.metastore.api.NotificationEventsCountRequest;
@@ -25,14 +26,26 @@
 import org.apache.hadoop.hive.metastore.messaging.event.filters.DatabaseAndTableFilter;
 import org.apache.hadoop.hive.ql.metadata.Hive;
 import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class EventUtils {
 
+  private static final Logger LOG = LoggerFactory.getLogger(EventUtils.class);
+
   public interface NotificationFetcher {
     int getBatchSize() throws IOException;
     long getCurrentNotificationEventId() throws IOException;
@@ -111,6 +124,124 @@ public List<NotificationEvent> getNextNotificationEvents(
     }
   }
 
+  /**
+   * NotificationFetcher that reads the batch following the one it returned in the background,
+   * while the caller processes the current batch. The background reads go through a metastore
+   * connection of their own, since the one of the caller is not thread safe.
+   */
+  public static class PrefetchingNotificationFetcher implements NotificationFetcher, Closeable {
+
+    private final NotificationFetcher fetcher;
+    private final HiveConf conf;
+    private final ExecutorService executor;
+    // Only used from the background thread
+    private NotificationFetcher backgroundFetcher = null;
+
+    private Future<List<NotificationEvent>> prefetched = null;
+    private long prefetchedPos;
+    private IMetaStoreClient.NotificationFilter prefetchedFilter;
+
+    public PrefetchingNotificationFetcher(NotificationFetcher fetcher, HiveConf conf) {
+      this(fetcher, conf, null);
+    }
+
+    @VisibleForTesting
+    PrefetchingNotificationFetcher(NotificationFetcher fetcher, NotificationFetcher backgroundFetcher) {
+      this(fetcher, null, backgroundFetcher);
+    }
+
+    private PrefetchingNotificationFetcher(NotificationFetcher fetcher, HiveConf conf,
+        NotificationFetcher backgroundFetcher) {
+      this.fetcher = fetcher;
+      this.conf = conf;
+      this.backgroundFetcher = backgroundFetcher;
+      this.executor = Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("notification-prefetch-%d").build());
+    }
+
+    @Override
+    public int getBatchSize() throws IOException {
+      return fetcher.getBatchSize();
+    }
+
+    @Override
+    public long getCurrentNotificationEventId() throws IOException {
+      return fetcher.getCurrentNotificationEventId();
+    }
+
+    @Override
+    public long getDbNotificationEventsCount(long fromEventId, String dbName, Long toEventId,
+                                             int limit) throws IOException {
+      return fetcher.getDbNotificationEventsCount(fromEventId, dbName, toEventId, limit);
+    }
+
+    @Override
+    public List<NotificationEvent> getNextNotificationEvents(
+        long pos, IMetaStoreClient.NotificationFilter filter) throws IOException {
+      List<NotificationEvent> batch = null;
+      if (prefetched != null) {
+        // Wait for it even if it is not the batch asked for, the filter is not meant to be
+        // used concurrently
+        List<NotificationEvent> prefetchedBatch = takePrefetched();
+        if (prefetchedPos == pos && prefetchedFilter == filter) {
+          batch = prefetchedBatch;
+        }
+      }
+      if (batch == null) {
+        batch = fetcher.getNextNotificationEvents(pos, filter);
+      }
+      if (batch != null && !batch.isEmpty()) {
+        // The caller continues from the last event it has seen
+        prefetch(batch.get(batch.size() - 1).getEventId(), filter);
+      }
+      return batch;
+    }
+
+    private List<NotificationEvent> takePrefetched() throws IOException {
+      Future<List<NotificationEvent>> future = prefetched;
+      prefetched = null;
+      try {
+        return future.get();
+      } catch (ExecutionException e) {
+        // Read it again in the calling thread, which reports the error if it persists
+        LOG.warn("Failed to prefetch notification events after event id " + prefetchedPos, e.getCause());
+        return null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+
+    private void prefetch(final long pos, final IMetaStoreClient.NotificationFilter filter) {
+      prefetchedPos = pos;
+      prefetchedFilter = filter;
+      prefetched = executor.submit(() -> {
+        if (backgroundFetcher == null) {
+          backgroundFetcher = new MSClientNotificationFetcher(Hive.getWithFastCheck(conf, false));
+        }
+        return backgroundFetcher.getNextNotificationEvents(pos, filter);
+      });
+    }
+
+    /**
+     * Drops the prefetched batch and releases the metastore connection of the background thread.
+     * A read still in progress is not interrupted, which would break the connection in the middle
+     * of a call; the connection is closed once it completes.
+     */
+    @Override
+    public void close() {
+      prefetched = null;
+      executor.submit(() -> {
+        Hive db = Hive.getThreadLocal();
+        if (db != null) {
+          db.close(true);
+          Hive.closeCurrent();
+        }
+      });
+      executor.shutdown();
+    }
+  }
+
   public static class NotificationEventIterator implements Iterator<NotificationEvent> {
 
     private NotificationFetcher nfetcher;
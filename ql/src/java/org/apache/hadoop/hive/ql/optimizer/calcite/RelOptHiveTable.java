@@ -17,12 +17,22 @@
  */
 package org.apache.hadoop.hive.ql.optimizer.calcite;
 
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -76,12 +86,15 @@
 import org.apache.hadoop.hive.ql.session.SessionState.LogHelper;
 import org.apache.hadoop.hive.ql.stats.StatsUtils;
 import org.apache.hadoop.hive.ql.util.DirectionUtils;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class RelOptHiveTable implements RelOptTable {
 
@@ -669,6 +682,156 @@ private void updateColStats(Set<Integer> projIndxLst, boolean allowMissingStats)
     }
   }
 
+  /**
+   * Fetches the column statistics of several tables concurrently, and stores them in the column
+   * stats cache of the query, from which {@link #getColStat(List)} later serves them without a
+   * metastore call. Tables reading the same partitions share an entry of the cache, thus they are
+   * handled by the same thread. Temporary tables are skipped, their statistics are kept in the
+   * session. Failures are only logged; the statistics are then fetched again when they are needed.
+   *
+   * @param tables The tables, with the indexes of the columns whose statistics are needed
+   * @param numThreads Maximum number of concurrent metastore connections
+   */
+  public static void fetchColStats(List<Pair<RelOptHiveTable, List<Integer>>> tables, int numThreads) {
+    // Resolve the partitions and the cache entries upfront; neither structure is thread safe
+    Map<String, List<Pair<RelOptHiveTable, List<Integer>>>> tablesByPartitionList = new HashMap<>();
+    HiveConf conf = null;
+    for (Pair<RelOptHiveTable, List<Integer>> table : tables) {
+      RelOptHiveTable relOptHiveTable = table.left;
+      if (relOptHiveTable.hiveTblMetadata.isTemporary()) {
+        continue;
+      }
+      if (null == relOptHiveTable.partitionList) {
+        relOptHiveTable.computePartitionList(relOptHiveTable.hiveConf, null, new HashSet<Integer>());
+      }
+      String key = relOptHiveTable.partitionList.getKey();
+      relOptHiveTable.colStatsCache.computeIfAbsent(key, k -> new ColumnStatsList());
+      tablesByPartitionList.computeIfAbsent(key, k -> new ArrayList<>()).add(table);
+      conf = relOptHiveTable.hiveConf;
+    }
+    if (tablesByPartitionList.size() < 2) {
+      return;
+    }
+
+    final HiveConf hiveConf = conf;
+    try {
+      forEachWithMetastore(tablesByPartitionList.values(), numThreads,
+          () -> Hive.getWithFastCheck(hiveConf, false),
+          (db, group) -> {
+            for (Pair<RelOptHiveTable, List<Integer>> table : group) {
+              table.left.loadColStatsCache(table.right);
+            }
+          });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Opens the metastore connection of a thread of {@link #forEachWithMetastore}.
+   */
+  @VisibleForTesting
+  interface MetastoreConnector {
+    Hive connect() throws HiveException;
+  }
+
+  /**
+   * Processes an item with the metastore connection of the current thread.
+   */
+  @VisibleForTesting
+  interface MetastoreAction<T> {
+    void apply(Hive db, T item) throws Exception;
+  }
+
+  /**
+   * Runs the action on each item, on at most numThreads threads that are created for this call
+   * and stopped before it returns. The threads run as the current user, without the session
+   * state. Each one opens a metastore connection of its own, and closes it once there are no more
+   * items, so that no connection outlives the call. The failure of an item is only logged.
+   */
+  @VisibleForTesting
+  static <T> void forEachWithMetastore(Collection<T> items, int numThreads,
+      MetastoreConnector connector, MetastoreAction<T> action) throws InterruptedException {
+    final UserGroupInformation ugi;
+    try {
+      ugi = UserGroupInformation.getCurrentUser();
+    } catch (IOException e) {
+      LOG.warn("Fetching column stats failed; they will be fetched when needed", e);
+      return;
+    }
+    Queue<T> pending = new ConcurrentLinkedQueue<>(items);
+    int poolSize = Math.max(1, Math.min(numThreads, items.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fetch-col-stats-%d").build());
+    try {
+      List<Callable<Void>> workers = new ArrayList<>(poolSize);
+      for (int i = 0; i < poolSize; i++) {
+        workers.add(() -> ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+          Hive db = connector.connect();
+          try {
+            T item;
+            while ((item = pending.poll()) != null) {
+              try {
+                action.apply(db, item);
+              } catch (Exception e) {
+                LOG.warn("Fetching column stats failed; they will be fetched when needed", e);
+              }
+            }
+          } finally {
+            db.close(true);
+            Hive.closeCurrent();
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : executor.invokeAll(workers)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          LOG.warn("Fetching column stats failed; they will be fetched when needed", e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Stores the statistics of the given non partition columns in the column stats cache, the
+   * same way {@link #updateColStats(Set, boolean)} does, but without resolving them for this
+   * table, so that missing statistics are still reported when the columns are actually used.
+   */
+  private void loadColStatsCache(List<Integer> projIndxLst) throws HiveException {
+    ColumnStatsList colStatsCached = colStatsCache.get(partitionList.getKey());
+    List<String> colNames = new ArrayList<>();
+    for (Integer pi : projIndxLst) {
+      ColumnInfo colInfo = hiveNonPartitionColsMap.get(pi);
+      if (colInfo != null && !colStatsCached.getColStats().containsKey(colInfo.getInternalName())) {
+        colNames.add(colInfo.getInternalName());
+      }
+    }
+    if (colNames.isEmpty()
+        || (hiveTblMetadata.isPartitioned() && partitionList.getNotDeniedPartns().isEmpty())) {
+      return;
+    }
+    Statistics stats = StatsUtils.collectStatistics(hiveConf,
+        hiveTblMetadata.isPartitioned() ? partitionList : null, hiveTblMetadata, hiveNonPartitionCols,
+        colNames, colStatsCached, colNames, true);
+    List<ColStatistics> colStats = new ArrayList<>(colNames.size());
+    for (String colName : colNames) {
+      ColStatistics cs = stats.getColumnStatisticsFromColName(colName);
+      if (cs == null) {
+        // Incomplete; leave it to updateColStats, which does not cache those either
+        return;
+      }
+      colStats.add(cs);
+    }
+    for (ColStatistics cs : colStats) {
+      colStatsCached.put(cs.getColumnName(), cs);
+    }
+    colStatsCached.updateState(stats.getColumnStatsState());
+  }
+
   public List<ColStatistics> getColStat(List<Integer> projIndxLst) {
     // If we allow estimated stats for the columns, then we shall set the boolean to true,
     // since otherwise we will throw an exception because columns with estimated stats are
@@ -20,12 +20,15 @@
 
 import java.util.AbstractSequentialList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.hive.conf.HiveConf;
@@ -58,6 +61,7 @@
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorConverters;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorConverters.Converter;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
@@ -78,6 +82,8 @@ public class PartitionPruner extends Transform {
   // The log
   public static final String CLASS_NAME = PartitionPruner.class.getName();
   public static final Logger LOG = LoggerFactory.getLogger(CLASS_NAME);
+  // Upper bound on the number of memoized expression results in prunePartitionNames.
+  private static final int MAX_CACHED_PRUNING_RESULTS = 100000;
 
   /*
    * (non-Javadoc)
@@ -564,6 +570,23 @@ public static boolean prunePartitionNames(List<String> partColumnNames,
     for (int i = 0; i < partColumnNames.size(); ++i) {
       values.add(null);
     }
+    // The converters only depend on the column types; don't create them for every partition.
+    Converter[] converters = new Converter[partColumnTypeInfos.size()];
+    for (int i = 0; i < converters.length; ++i) {
+      converters[i] = ObjectInspectorConverters.getConverter(
+          PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+          PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(partColumnTypeInfos.get(i)));
+    }
+    ArrayList<Object> convertedValues = new ArrayList<Object>(values.size());
+
+    // If the expression only uses some of the partition columns (e.g. a date range on a table
+    // partitioned by date and hour), many partitions share the values of these columns, and the
+    // result of the expression can be reused for all of them.
+    int[] referencedColumns = getReferencedColumns(prunerExpr, partColumnNames);
+    Map<List<String>, Boolean> results = null;
+    if (referencedColumns != null && ExprNodeDescUtils.isDeterministic(prunerExpr)) {
+      results = new HashMap<List<String>, Boolean>();
+    }
 
     boolean hasUnknownPartitions = false;
     Iterator<String> partIter = partNamesSeq.iterator();
@@ -571,24 +594,34 @@ public static boolean prunePartitionNames(List<String> partColumnNames,
       String partName = partIter.next();
       Warehouse.makeValsFromName(partName, values);
 
-      ArrayList<Object> convertedValues = new ArrayList<Object>(values.size());
-      for(int i=0; i<values.size(); i++) {
-        String partitionValue = values.get(i);
-        PrimitiveTypeInfo typeInfo = partColumnTypeInfos.get(i);
-
-        if (partitionValue.equals(defaultPartitionName)) {
-          convertedValues.add(null); // Null for default partition.
-        } else {
-          Object o = ObjectInspectorConverters.getConverter(
-              PrimitiveObjectInspectorFactory.javaStringObjectInspector,
-              PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(typeInfo))
-              .convert(partitionValue);
-          convertedValues.add(o);
+      List<String> resultKey = null;
+      Boolean isNeeded;
+      if (results != null) {
+        String[] keyValues = new String[referencedColumns.length];
+        for (int i = 0; i < referencedColumns.length; ++i) {
+          keyValues[i] = values.get(referencedColumns[i]);
         }
+        resultKey = Arrays.asList(keyValues);
       }
+      if (resultKey != null && results.containsKey(resultKey)) {
+        isNeeded = results.get(resultKey);
+      } else {
+        convertedValues.clear();
+        for(int i=0; i<values.size(); i++) {
+          String partitionValue = values.get(i);
+          if (partitionValue.equals(defaultPartitionName)) {
+            convertedValues.add(null); // Null for default partition.
+          } else {
+            convertedValues.add(converters[i].convert(partitionValue));
+          }
+        }
 
-      // Evaluate the expression tree.
-      Boolean isNeeded = (Boolean)PartExprEvalUtils.evaluateExprOnPart(handle, convertedValues);
+        // Evaluate the expression tree.
+        isNeeded = (Boolean)PartExprEvalUtils.evaluateExprOnPart(handle, convertedValues);
+        if (resultKey != null && results.size() < MAX_CACHED_PRUNING_RESULTS) {
+          results.put(resultKey, isNeeded);
+        }
+      }
       boolean isUnknown = (isNeeded == null);
       if (!isUnknown && !isNeeded) {
         partIter.remove();
@@ -615,6 +648,40 @@ public static boolean prunePartitionNames(List<String> partColumnNames,
     return hasUnknownPartitions;
   }
 
+  /**
+   * @return Indexes of the partition columns used by the expression, or null if it uses all of
+   *         them (or columns that are not partition columns).
+   */
+  private static int[] getReferencedColumns(ExprNodeDesc expr, List<String> partColumnNames) {
+    List<String> cols = expr.getCols();
+    if (cols == null) {
+      return null;
+    }
+    Set<Integer> referenced = new TreeSet<Integer>();
+    for (String col : cols) {
+      int index = -1;
+      for (int i = 0; i < partColumnNames.size(); ++i) {
+        if (partColumnNames.get(i).equalsIgnoreCase(col)) {
+          index = i;
+          break;
+        }
+      }
+      if (index < 0) {
+        return null;
+      }
+      referenced.add(index);
+    }
+    if (referenced.size() == partColumnNames.size()) {
+      return null;
+    }
+    int[] result = new int[referenced.size()];
+    int i = 0;
+    for (int index : referenced) {
+      result[i++] = index;
+    }
+    return result;
+  }
+
   /**
    * Whether the expression contains a column node or not.
    */
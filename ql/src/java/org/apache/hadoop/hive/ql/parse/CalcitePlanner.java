@@ -1821,6 +1821,12 @@ public RelNode apply(RelOptCluster cluster, RelOptSchema relOptSchema, SchemaPlu
       calcitePreCboPlan = applyPreJoinOrderingTransforms(calciteGenPlan,
           mdProvider.getMetadataProvider(), executorProvider);
 
+      // 2.1. Fetch the column stats of all the scans at once, now that partitions and
+      //      columns have been pruned, rather than table by table during join reordering
+      if (profilesCBO.contains(ExtendedCBOProfile.JOIN_REORDERING)) {
+        fetchColumnStats(calcitePreCboPlan);
+      }
+
       // 3. Materialized view based rewriting
       // We disable it for CTAS and MV creation queries (trying to avoid any problem
       // due to data freshness)
@@ -2381,6 +2387,30 @@ private RelNode applyPostJoinOrderingTransform(RelNode basePlan, RelMetadataProv
       return basePlan;
     }
 
+    private void fetchColumnStats(RelNode plan) {
+      final int numThreads = conf.getIntVar(ConfVars.HIVE_STATS_FETCH_COLUMN_STATS_THREADS);
+      if (numThreads <= 1 || !conf.getBoolVar(ConfVars.HIVE_STATS_FETCH_COLUMN_STATS)) {
+        return;
+      }
+      final List<Pair<RelOptHiveTable, List<Integer>>> tables = new ArrayList<>();
+      new RelVisitor() {
+        @Override
+        public void visit(RelNode node, int ordinal, RelNode parent) {
+          if (node instanceof HiveTableScan) {
+            HiveTableScan ts = (HiveTableScan) node;
+            tables.add(Pair.of((RelOptHiveTable) ts.getTable(), ts.getNeededColIndxsFrmReloptHT()));
+          }
+          super.visit(node, ordinal, parent);
+        }
+      }.go(plan);
+
+      final PerfLogger perfLogger = SessionState.getPerfLogger();
+      perfLogger.PerfLogBegin(this.getClass().getName(), PerfLogger.OPTIMIZER);
+      RelOptHiveTable.fetchColStats(tables, numThreads);
+      perfLogger.PerfLogEnd(this.getClass().getName(), PerfLogger.OPTIMIZER,
+          "Calcite: Fetch column stats");
+    }
+
     private List<String> getTablesUsed(RelNode plan) {
       List<String> tablesUsed = new ArrayList<>();
       new RelVisitor() {
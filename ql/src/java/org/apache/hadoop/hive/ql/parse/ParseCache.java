@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.parse;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.TokenRewriteStream;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.metrics.common.Metrics;
+import org.apache.hadoop.hive.common.metrics.common.MetricsConstant;
+import org.apache.hadoop.hive.common.metrics.common.MetricsFactory;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the ASTs of the queries parsed by this process, see
+ * {@link HiveConf.ConfVars#HIVE_QUERY_PARSE_CACHE_SIZE}.
+ *
+ * The ASTs are keyed by the shape of the query: its token sequence, with the text of the string
+ * and numeric literals left out. On a hit the cached AST is copied, and the nodes of the literals
+ * get the text of the literals of the new query. If the text of a changed literal shows up in
+ * any other node, e.g. because the parser derived a node from it, the AST can't be rebound
+ * safely and the query is parsed again.
+ */
+public final class ParseCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ParseCache.class);
+
+  private static volatile boolean initialized;
+  private static ParseCache instance;
+
+  private final Cache<String, Entry> entries;
+
+  @VisibleForTesting
+  ParseCache(long maxWeight) {
+    // The tokens and the AST of a query grow with the length of its shape.
+    this.entries = CacheBuilder.newBuilder().maximumWeight(maxWeight)
+        .<String, Entry>weigher((shape, entry) -> shape.length()).build();
+  }
+
+  /**
+   * The cache is shared by the whole process, so it is sized by the configuration of the first
+   * query parsed; later changes of the setting, e.g. by a session, are ignored.
+   * @return The cache, or null if it is disabled.
+   */
+  public static ParseCache getInstance(Configuration conf) {
+    if (!initialized) {
+      synchronized (ParseCache.class) {
+        if (!initialized) {
+          long maxWeight = HiveConf.getSizeVar(conf, HiveConf.ConfVars.HIVE_QUERY_PARSE_CACHE_SIZE);
+          instance = maxWeight > 0 ? new ParseCache(maxWeight) : null;
+          initialized = true;
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Parses a top level query, like {@link ParseUtils#parse(String, Context)}.
+   */
+  public ASTNode parse(String command, Context ctx) throws ParseException {
+    TokenRewriteStream tokens = new ParseDriver().tokenize(command, ctx.getConf());
+    if (tokens == null) {
+      // Let the parser report the errors.
+      return ParseUtils.parseUncached(command, ctx, null);
+    }
+    String shape = getShape(tokens.getTokens(), ctx.getConf());
+    Entry entry = entries.getIfPresent(shape);
+    if (entry != null) {
+      ASTNode tree = entry.bind(tokens.getTokens());
+      if (tree != null) {
+        ctx.setTokenRewriteStream(tokens);
+        incrementMetric(MetricsConstant.PARSE_CACHE_HITS);
+        return tree;
+      }
+      LOG.debug("Cached AST can't be rebound to the literals of the query, parsing it");
+    }
+    incrementMetric(MetricsConstant.PARSE_CACHE_MISSES);
+    // Parse the tokens the shape was computed from, rather than lexing the query again
+    ASTNode tree = ParseUtils.parseUncached(tokens, ctx);
+    entries.put(shape, new Entry(tree, tokens.getTokens()));
+    return tree;
+  }
+
+  @VisibleForTesting
+  long size() {
+    entries.cleanUp();
+    return entries.size();
+  }
+
+  private static boolean isLiteral(Token token) {
+    switch (token.getType()) {
+    case HiveLexer.StringLiteral:
+    case HiveLexer.Number:
+    case HiveLexer.IntegralLiteral:
+    case HiveLexer.NumberLiteral:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  @VisibleForTesting
+  static String getShape(List<? extends Token> tokens, Configuration conf) {
+    StringBuilder shape = new StringBuilder();
+    // The settings the lexer and the parser depend on.
+    shape.append(HiveConf.getVar(conf, HiveConf.ConfVars.HIVE_QUOTEDID_SUPPORT)).append(' ')
+        .append(HiveConf.getBoolVar(conf, HiveConf.ConfVars.HIVE_DEFAULT_NULLS_LAST));
+    for (Token token : tokens) {
+      shape.append('\u0000').append(token.getType());
+      if (!isLiteral(token)) {
+        shape.append(':').append(token.getText());
+      }
+    }
+    return shape.toString();
+  }
+
+  private static void incrementMetric(String name) {
+    Metrics metrics = MetricsFactory.getInstance();
+    if (metrics != null) {
+      metrics.incrementCounter(name);
+    }
+  }
+
+  private static final class Entry {
+    private final ASTNode tree;
+    // Text of the literals the tree was parsed with, by token index.
+    private final Map<Integer, String> literals = new HashMap<>();
+
+    private Entry(ASTNode tree, List<? extends Token> tokens) {
+      this.tree = copy(tree, null, null, null);
+      for (Token token : tokens) {
+        if (isLiteral(token)) {
+          literals.put(token.getTokenIndex(), token.getText());
+        }
+      }
+    }
+
+    /**
+     * @param tokens The tokens of a query of the same shape.
+     * @return A copy of the tree for the query, or null if it can't be made.
+     */
+    private ASTNode bind(List<? extends Token> tokens) {
+      Map<Integer, String> newLiterals = new HashMap<>();
+      Set<String> changedLiterals = new HashSet<>();
+      for (Map.Entry<Integer, String> literal : literals.entrySet()) {
+        String text = tokens.get(literal.getKey()).getText();
+        if (!text.equals(literal.getValue())) {
+          newLiterals.put(literal.getKey(), text);
+          changedLiterals.add(literal.getValue());
+        }
+      }
+      return copy(tree, tokens, newLiterals, changedLiterals);
+    }
+
+    private ASTNode copy(ASTNode root, List<? extends Token> tokens,
+        Map<Integer, String> newLiterals, Set<String> changedLiterals) {
+      ASTNode rootCopy = copyNode(root, tokens, newLiterals, changedLiterals);
+      if (rootCopy == null) {
+        return null;
+      }
+      // Iterative, the trees of long expressions can be deep.
+      Deque<ASTNode[]> stack = new ArrayDeque<>();
+      stack.push(new ASTNode[] { root, rootCopy });
+      while (!stack.isEmpty()) {
+        ASTNode[] nodes = stack.pop();
+        for (int i = 0; i < nodes[0].getChildCount(); ++i) {
+          ASTNode child = (ASTNode) nodes[0].getChild(i);
+          ASTNode childCopy = copyNode(child, tokens, newLiterals, changedLiterals);
+          if (childCopy == null) {
+            return null;
+          }
+          nodes[1].addChild(childCopy);
+          stack.push(new ASTNode[] { child, childCopy });
+        }
+      }
+      return rootCopy;
+    }
+
+    private ASTNode copyNode(ASTNode node, List<? extends Token> tokens,
+        Map<Integer, String> newLiterals, Set<String> changedLiterals) {
+      Token token = node.getToken();
+      if (tokens == null || token == null) {
+        return new ASTNode(node);
+      }
+      int index = token.getTokenIndex();
+      String newText = index >= 0 ? newLiterals.get(index) : null;
+      if (newText == null) {
+        if (changedLiterals.contains(token.getText())) {
+          return null;
+        }
+        if (index < 0) {
+          return new ASTNode(node);
+        }
+      } else if (!token.getText().equals(literals.get(index))) {
+        return null;
+      }
+      // Point the token to the new query, so that error messages show the right positions.
+      Token source = tokens.get(index);
+      CommonToken tokenCopy = new CommonToken(token);
+      tokenCopy.setInputStream(source.getInputStream());
+      tokenCopy.setLine(source.getLine());
+      tokenCopy.setCharPositionInLine(source.getCharPositionInLine());
+      if (source instanceof CommonToken) {
+        tokenCopy.setStartIndex(((CommonToken) source).getStartIndex());
+        tokenCopy.setStopIndex(((CommonToken) source).getStopIndex());
+      }
+      if (newText != null) {
+        tokenCopy.setText(newText);
+      }
+      ASTNode nodeCopy = new ASTNode(tokenCopy);
+      nodeCopy.setTokenStartIndex(node.getTokenStartIndex());
+      nodeCopy.setTokenStopIndex(node.getTokenStopIndex());
+      return nodeCopy;
+    }
+  }
+}
@@ -33,6 +33,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.ql.Context;
 
 /**
@@ -220,6 +221,20 @@ public ASTNode parse(String command, Context ctx, String viewFullyQualifiedName)
       }
       lexer.setHiveConf(ctx.getConf());
     }
+    return parse(tokens, lexer, ctx);
+  }
+
+  /**
+   * Parses a top level command from the tokens returned by {@link #tokenize(String, Configuration)},
+   * without lexing it again.
+   */
+  ASTNode parse(TokenRewriteStream tokens, Context ctx) throws ParseException {
+    ctx.setTokenRewriteStream(tokens);
+    return parse(tokens, null, ctx);
+  }
+
+  private ASTNode parse(TokenRewriteStream tokens, HiveLexerX lexer, Context ctx)
+      throws ParseException {
     HiveParser parser = new HiveParser(tokens);
     if (ctx != null) {
       parser.setHiveConf(ctx.getConf());
@@ -232,9 +247,10 @@ public ASTNode parse(String command, Context ctx, String viewFullyQualifiedName)
       throw new ParseException(parser.errors);
     }
 
-    if (lexer.getErrors().size() == 0 && parser.errors.size() == 0) {
+    // The tokens returned by tokenize() have no lexer errors
+    if ((lexer == null || lexer.getErrors().size() == 0) && parser.errors.size() == 0) {
       LOG.debug("Parse Completed");
-    } else if (lexer.getErrors().size() != 0) {
+    } else if (lexer != null && lexer.getErrors().size() != 0) {
       throw new ParseException(lexer.getErrors());
     } else {
       throw new ParseException(parser.errors);
@@ -245,6 +261,19 @@ public ASTNode parse(String command, Context ctx, String viewFullyQualifiedName)
     return tree;
   }
 
+  /**
+   * Tokenizes a command with the same lexer as {@link #parse(String, Context, String)}.
+   *
+   * @return all the tokens of the command, or null if it can't be tokenized
+   */
+  TokenRewriteStream tokenize(String command, Configuration conf) {
+    HiveLexerX lexer = new HiveLexerX(new ANTLRNoCaseStringStream(command));
+    lexer.setHiveConf(conf);
+    TokenRewriteStream tokens = new TokenRewriteStream(lexer);
+    tokens.fill();
+    return lexer.getErrors().isEmpty() ? tokens : null;
+  }
+
   /*
    * Parse a string as a query hint.
    */
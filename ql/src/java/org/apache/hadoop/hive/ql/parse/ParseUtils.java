@@ -31,6 +31,7 @@
 import java.util.Queue;
 import java.util.Set;
 import java.util.Stack;
+import org.antlr.runtime.TokenRewriteStream;
 import org.antlr.runtime.tree.CommonTree;
 import org.antlr.runtime.tree.Tree;
 import org.apache.calcite.rel.RelNode;
@@ -75,6 +76,18 @@ public static ASTNode parse(String command, Context ctx) throws ParseException {
   /** Parses the Hive query. */
   public static ASTNode parse(
       String command, Context ctx, String viewFullyQualifiedName) throws ParseException {
+    if (ctx != null && viewFullyQualifiedName == null) {
+      ParseCache cache = ParseCache.getInstance(ctx.getConf());
+      if (cache != null) {
+        return cache.parse(command, ctx);
+      }
+    }
+    return parseUncached(command, ctx, viewFullyQualifiedName);
+  }
+
+  /** Parses the Hive query, bypassing the {@link ParseCache}. */
+  static ASTNode parseUncached(
+      String command, Context ctx, String viewFullyQualifiedName) throws ParseException {
     ParseDriver pd = new ParseDriver();
     ASTNode tree = pd.parse(command, ctx, viewFullyQualifiedName);
     tree = findRootNonNullToken(tree);
@@ -82,6 +95,18 @@ public static ASTNode parse(
     return tree;
   }
 
+  /**
+   * Parses a top level query from its tokens, see {@link ParseDriver#tokenize}, bypassing the
+   * {@link ParseCache}.
+   */
+  static ASTNode parseUncached(TokenRewriteStream tokens, Context ctx) throws ParseException {
+    ParseDriver pd = new ParseDriver();
+    ASTNode tree = pd.parse(tokens, ctx);
+    tree = findRootNonNullToken(tree);
+    handleSetColRefs(tree);
+    return tree;
+  }
+
   /**
    * Tests whether the parse tree node is a join token.
    *
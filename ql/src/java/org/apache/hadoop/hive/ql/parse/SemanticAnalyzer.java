@@ -35,6 +35,7 @@
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -2062,6 +2063,7 @@ private void getMetaData(QB qb, boolean enableMaterialization) throws SemanticEx
       if (enableMaterialization) {
         getMaterializationMetadata(qb);
       }
+      prefetchTables(qb);
       getMetaData(qb, null);
     } catch (HiveException e) {
       if (e instanceof SemanticException) {
@@ -2071,6 +2073,77 @@ private void getMetaData(QB qb, boolean enableMaterialization) throws SemanticEx
     }
   }
 
+  /**
+   * Fetches the tables read by the query into {@link #tabNameToTabObject}, with one metastore call
+   * per database, from which {@link #getMetaData(QB, ReadEntity)} then resolves them. Tables read
+   * by views are only known once the views are expanded, and are still fetched one at a time.
+   * Failures are only logged; the tables are then fetched again when they are resolved.
+   */
+  private void prefetchTables(QB qb) {
+    if (!conf.getBoolVar(ConfVars.HIVE_COMPILE_METADATA_PREFETCH)) {
+      return;
+    }
+    Set<String> tabNames = new LinkedHashSet<>();
+    gatherTableNames(qb, tabNames);
+    tabNames.removeAll(tabNameToTabObject.keySet());
+    tabNames.remove(DUMMY_DATABASE + "." + DUMMY_TABLE);
+    if (tabNames.size() < 2) {
+      return;
+    }
+
+    // db name -> table name -> names of the table in the query
+    Map<String, Map<String, List<String>>> dbToTabNames = new LinkedHashMap<>();
+    for (String tabName : tabNames) {
+      String[] names;
+      try {
+        names = Utilities.getDbTableName(tabName);
+      } catch (SemanticException e) {
+        // Reported when the table is resolved
+        continue;
+      }
+      dbToTabNames.computeIfAbsent(names[0].toLowerCase(), k -> new LinkedHashMap<>())
+          .computeIfAbsent(names[1].toLowerCase(), k -> new ArrayList<>()).add(tabName);
+    }
+    for (Map.Entry<String, Map<String, List<String>>> dbTabNames : dbToTabNames.entrySet()) {
+      Map<String, List<String>> nameToTabNames = dbTabNames.getValue();
+      try {
+        for (Table table : db.getTableObjects(dbTabNames.getKey(),
+            new ArrayList<>(nameToTabNames.keySet()))) {
+          List<String> names = nameToTabNames.get(table.getTableName().toLowerCase());
+          if (names != null) {
+            for (String tabName : names) {
+              tabNameToTabObject.put(tabName, table);
+            }
+          }
+        }
+      } catch (HiveException e) {
+        LOG.warn("Prefetching the tables of " + dbTabNames.getKey()
+            + " failed; they will be fetched when needed", e);
+      }
+    }
+  }
+
+  private void gatherTableNames(QBExpr qbexpr, Set<String> tabNames) {
+    if (qbexpr.getOpcode() == QBExpr.Opcode.NULLOP) {
+      gatherTableNames(qbexpr.getQB(), tabNames);
+    } else {
+      gatherTableNames(qbexpr.getQBExpr1(), tabNames);
+      gatherTableNames(qbexpr.getQBExpr2(), tabNames);
+    }
+  }
+
+  private void gatherTableNames(QB qb, Set<String> tabNames) {
+    for (String alias : qb.getTabAliases()) {
+      String tabName = qb.getTabNameForAlias(alias);
+      if (findCTEFromName(qb, tabName.toLowerCase()) == null) {
+        tabNames.add(tabName);
+      }
+    }
+    for (String alias : qb.getSubqAliases()) {
+      gatherTableNames(qb.getSubqForAlias(alias), tabNames);
+    }
+  }
+
   private void getMetaData(QBExpr qbexpr, ReadEntity parentInput)
       throws HiveException {
     if (qbexpr.getOpcode() == QBExpr.Opcode.NULLOP) {
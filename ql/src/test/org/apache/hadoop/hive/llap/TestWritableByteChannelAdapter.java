@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.llap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWritableByteChannelAdapter {
+
+  private EmbeddedChannel channel;
+
+  @Before
+  public void setUp() {
+    channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+  }
+
+  @Test
+  public void testWriteWrapsBuffer() throws Exception {
+    WritableByteChannelAdapter adapter = createAdapter(4);
+    ByteBuffer src = ByteBuffer.allocateDirect(16);
+    src.putLong(1L);
+    src.flip();
+
+    assertEquals(8, adapter.write(src));
+    assertEquals(0, src.remaining());
+    // Nothing goes out until the batch is flushed.
+    assertNull(channel.readOutbound());
+
+    // The queued write still sees the caller's memory, so it was not copied.
+    src.putLong(0, 2L);
+    adapter.flush();
+    ByteBuf out = channel.readOutbound();
+    try {
+      assertEquals(8, out.readableBytes());
+      assertEquals(2L, out.getLong(out.readerIndex()));
+    } finally {
+      out.release();
+    }
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void testWriteFlushesWhenPendingWritesExhausted() throws Exception {
+    WritableByteChannelAdapter adapter = createAdapter(1);
+    for (int i = 0; i < 3; ++i) {
+      adapter.write(ByteBuffer.wrap(new byte[] { (byte) i }));
+    }
+    // The first two writes were flushed to make room for the next one.
+    assertOutbound(0);
+    assertOutbound(1);
+    assertNull(channel.readOutbound());
+
+    adapter.flush();
+    assertOutbound(2);
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void testCloseFlushes() throws Exception {
+    WritableByteChannelAdapter adapter = createAdapter(4);
+    adapter.write(ByteBuffer.wrap(new byte[] { 7 }));
+    adapter.close();
+
+    assertOutbound(7);
+    assertFalse(channel.isOpen());
+  }
+
+  private WritableByteChannelAdapter createAdapter(int maxPendingWrites) {
+    return new WritableByteChannelAdapter(channel.pipeline().firstContext(), maxPendingWrites, "test");
+  }
+
+  private void assertOutbound(int expected) {
+    ByteBuf out = channel.readOutbound();
+    try {
+      assertEquals(1, out.readableBytes());
+      assertEquals(expected, out.getByte(out.readerIndex()));
+    } finally {
+      out.release();
+    }
+  }
+}
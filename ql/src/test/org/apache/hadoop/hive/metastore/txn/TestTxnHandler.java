@@ -75,9 +75,17 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -1716,4 +1724,153 @@ private long openTxn() throws MetaException {
     return txns.get(0);
   }
 
+  /**
+   * A mutex on in-memory semaphores, which records the keys each thread acquires in order.
+   */
+  private static class InMemoryMutex implements TxnStore.MutexAPI {
+    private final Map<String, Semaphore> keys = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<String>> acquired = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public LockHandle acquireLock(String key) {
+      Semaphore semaphore = keys.computeIfAbsent(key, k -> new Semaphore(1));
+      semaphore.acquireUninterruptibly();
+      acquired.get().add(key);
+      return semaphore::release;
+    }
+
+    @Override
+    public void acquireLock(String key, LockHandle handle) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * @return The name of a database whose CheckLock mutex is the given shard.
+   */
+  private static String dbInShard(int shard, int shardCount) {
+    for (int i = 0; ; ++i) {
+      String dbName = "db" + i;
+      if (Math.floorMod(dbName.hashCode(), shardCount) == shard) {
+        return dbName;
+      }
+    }
+  }
+
+  @Test
+  public void testCheckLockMutexSingleShard() throws Exception {
+    InMemoryMutex mutex = new InMemoryMutex();
+    TxnHandler.acquireCheckLockMutex(mutex, 1, Arrays.asList("db1", "db2")).releaseLocks();
+    assertEquals(Collections.singletonList("CheckLock"), mutex.acquired.get());
+  }
+
+  @Test
+  public void testCheckLockMutexSameDbSerialized() throws Exception {
+    InMemoryMutex mutex = new InMemoryMutex();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      TxnStore.MutexAPI.LockHandle handle =
+          TxnHandler.acquireCheckLockMutex(mutex, 4, Collections.singletonList("mydb"));
+      Future<TxnStore.MutexAPI.LockHandle> other = executor.submit(
+          () -> TxnHandler.acquireCheckLockMutex(mutex, 4, Collections.singletonList("mydb")));
+      try {
+        other.get(200, TimeUnit.MILLISECONDS);
+        fail("checkLock() on the same database should wait for the mutex");
+      } catch (TimeoutException e) {
+        // Expected.
+      }
+      handle.releaseLocks();
+      other.get(10, TimeUnit.SECONDS).releaseLocks();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCheckLockMutexDifferentDbsParallel() throws Exception {
+    InMemoryMutex mutex = new InMemoryMutex();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      TxnStore.MutexAPI.LockHandle handle =
+          TxnHandler.acquireCheckLockMutex(mutex, 4, Collections.singletonList(dbInShard(0, 4)));
+      // Acquired while the first database's shard is still held.
+      executor.submit(() -> TxnHandler.acquireCheckLockMutex(
+          mutex, 4, Collections.singletonList(dbInShard(1, 4)))).get(10, TimeUnit.SECONDS).releaseLocks();
+      handle.releaseLocks();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCheckLockMutexMultiDbOrdered() throws Exception {
+    InMemoryMutex mutex = new InMemoryMutex();
+    List<String> dbNames = Arrays.asList(dbInShard(3, 4), dbInShard(1, 4), dbInShard(2, 4));
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+        final List<String> threadDbNames = new ArrayList<>(dbNames);
+        Collections.rotate(threadDbNames, t);
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 200; ++i) {
+            mutex.acquired.get().clear();
+            TxnHandler.acquireCheckLockMutex(mutex, 4, threadDbNames).releaseLocks();
+            // Whatever the order of the databases, the shards are locked in ascending order.
+            assertEquals(Arrays.asList("CheckLock.1", "CheckLock.2", "CheckLock.3"),
+                mutex.acquired.get());
+          }
+          return null;
+        }));
+      }
+      // A deadlock would make this time out.
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCheckLockShardsRecorded() throws Exception {
+    TxnHandler.setCheckLockShards(4);
+    try {
+      assertEquals(4, ((TxnHandler) txnHandler).getCheckLockShards());
+      // A metastore configured with another number uses the recorded one.
+      TxnHandler.setCheckLockShards(2);
+      assertEquals(4, ((TxnHandler) txnHandler).getCheckLockShards());
+    } finally {
+      TxnHandler.setCheckLockShards(1);
+    }
+  }
+
+  @Test
+  public void testLockWithShardedCheckLockMutex() throws Exception {
+    TxnHandler.setCheckLockShards(4);
+    try {
+      List<LockComponent> components = new ArrayList<LockComponent>(2);
+      for (String dbName : Arrays.asList(dbInShard(0, 4), dbInShard(1, 4))) {
+        LockComponent comp = new LockComponent(LockType.EXCLUSIVE, LockLevel.DB, dbName);
+        comp.setOperationType(DataOperationType.NO_TXN);
+        components.add(comp);
+      }
+      LockResponse res = txnHandler.lock(new LockRequest(components, "me", "localhost"));
+      assertTrue(res.getState() == LockState.ACQUIRED);
+
+      // Still conflicts with a lock on one of the databases.
+      LockComponent comp = new LockComponent(LockType.EXCLUSIVE, LockLevel.DB, dbInShard(1, 4));
+      comp.setOperationType(DataOperationType.NO_TXN);
+      res = txnHandler.lock(new LockRequest(Collections.singletonList(comp), "me", "localhost"));
+      assertTrue(res.getState() == LockState.WAITING);
+
+      comp = new LockComponent(LockType.EXCLUSIVE, LockLevel.DB, dbInShard(2, 4));
+      comp.setOperationType(DataOperationType.NO_TXN);
+      res = txnHandler.lock(new LockRequest(Collections.singletonList(comp), "me", "localhost"));
+      assertTrue(res.getState() == LockState.ACQUIRED);
+    } finally {
+      TxnHandler.setCheckLockShards(1);
+    }
+  }
+
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.cache.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.cache.results.QueryResultsCache.CacheEntry;
+import org.apache.hadoop.hive.ql.cache.results.QueryResultsCache.CacheEntryStatus;
+import org.apache.hadoop.hive.ql.cache.results.QueryResultsCache.LookupInfo;
+import org.apache.hadoop.hive.ql.cache.results.QueryResultsCache.QueryInfo;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.plan.FetchWork;
+import org.apache.hadoop.hive.ql.plan.HiveOperation;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests which entries the query results cache evicts to make room for a new one.
+ */
+public class TestQueryResultsCacheEviction {
+
+  @ClassRule
+  public static TemporaryFolder folder = new TemporaryFolder();
+
+  private static HiveConf conf;
+  private static QueryResultsCache cache;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    conf = new HiveConf();
+    conf.setVar(HiveConf.ConfVars.HIVE_QUERY_RESULTS_CACHE_DIRECTORY,
+        folder.newFolder("cache").getAbsolutePath());
+    conf.setLongVar(HiveConf.ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_SIZE, 100);
+    conf.setLongVar(HiveConf.ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_SIZE, -1);
+    QueryResultsCache.initialize(conf);
+    cache = QueryResultsCache.getInstance();
+  }
+
+  @Before
+  public void setUp() {
+    cache.clear();
+    assertEquals(0, cache.getSize());
+  }
+
+  private static QueryInfo queryInfo(String query) {
+    return new QueryInfo(System.currentTimeMillis(), new LookupInfo(query, () -> null),
+        HiveOperation.QUERY, null, null, null, new HashSet<ReadEntity>());
+  }
+
+  /**
+   * @return A fetch work reading a single result file of the given size.
+   */
+  private static FetchWork results(long size) throws Exception {
+    File dir = folder.newFolder();
+    File file = new File(dir, "000000_0");
+    Files.write(file.toPath(), new byte[(int) size]);
+    FileSystem fs = FileSystem.getLocal(conf);
+    Set<FileStatus> files = new HashSet<>();
+    files.add(fs.getFileStatus(new Path(file.toURI())));
+    FetchWork fetchWork = new FetchWork(new Path(dir.toURI()), null, -1);
+    fetchWork.setFilesToFetch(files);
+    return fetchWork;
+  }
+
+  private static CacheEntry add(String query, long size) throws Exception {
+    CacheEntry entry = cache.addToCache(queryInfo(query), null);
+    boolean added = cache.setEntryValid(entry, results(size));
+    if (added) {
+      entry.releaseReader();
+    } else {
+      cache.removeEntry(entry);
+    }
+    return entry;
+  }
+
+  private static boolean isValid(CacheEntry entry) {
+    return entry.getStatus() == CacheEntryStatus.VALID;
+  }
+
+  @Test
+  public void testEntryFitsWithoutEviction() throws Exception {
+    CacheEntry a = add("select a", 40);
+    CacheEntry b = add("select b", 60);
+    assertTrue(isValid(a));
+    assertTrue(isValid(b));
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  public void testEntryLargerThanCacheKeepsEntries() throws Exception {
+    CacheEntry a = add("select a", 40);
+    CacheEntry b = add("select b", 40);
+
+    // Evicting everything would not be enough
+    CacheEntry c = add("select c", 150);
+    assertFalse(isValid(c));
+    assertTrue(isValid(a));
+    assertTrue(isValid(b));
+    assertEquals(80, cache.getSize());
+  }
+
+  @Test
+  public void testEntryLargerThanFreeSpaceAndEvictableEntries() throws Exception {
+    CacheEntry a = add("select a", 40);
+    CacheEntry b = add("select b", 40);
+
+    // 20 bytes are free, the 80 bytes of entries are not enough to free the other 90
+    CacheEntry c = add("select c", 110);
+    assertFalse(isValid(c));
+    assertTrue(isValid(a));
+    assertTrue(isValid(b));
+    assertEquals(80, cache.getSize());
+
+    // Removing both is enough for 90 bytes
+    CacheEntry d = add("select d", 90);
+    assertTrue(isValid(d));
+    assertFalse(isValid(a));
+    assertFalse(isValid(b));
+    assertEquals(90, cache.getSize());
+  }
+
+  @Test
+  public void testPendingEntriesNotEvicted() throws Exception {
+    CacheEntry a = add("select a", 40);
+    CacheEntry pending = cache.addToCache(queryInfo("select pending"), null);
+    CacheEntry b = add("select b", 40);
+    // A pending entry has no result yet, it takes no space
+    assertEquals(80, cache.getSize());
+
+    // The pending entry is skipped, the least recently used valid one is enough
+    CacheEntry c = add("select c", 60);
+    assertTrue(isValid(c));
+    assertFalse(isValid(a));
+    assertEquals(CacheEntryStatus.PENDING, pending.getStatus());
+    assertTrue(isValid(b));
+    assertEquals(100, cache.getSize());
+
+    // Only the pending entry and too few valid ones are left
+    CacheEntry d = add("select d", 101);
+    assertFalse(isValid(d));
+    assertEquals(CacheEntryStatus.PENDING, pending.getStatus());
+    assertTrue(isValid(b));
+    assertTrue(isValid(c));
+    cache.removeEntry(pending);
+  }
+
+  @Test
+  public void testPartialLruEviction() throws Exception {
+    CacheEntry a = add("select a", 30);
+    CacheEntry b = add("select b", 30);
+    CacheEntry c = add("select c", 30);
+    // a becomes the most recently used
+    assertEquals(a, cache.lookup(new LookupInfo("select a", () -> null)));
+
+    // 10 bytes are free, evicting b, the least recently used, is enough
+    CacheEntry d = add("select d", 30);
+    assertTrue(isValid(d));
+    assertFalse(isValid(b));
+    assertTrue(isValid(a));
+    assertTrue(isValid(c));
+    assertEquals(90, cache.getSize());
+
+    // Needs two entries: c then a
+    CacheEntry e = add("select e", 60);
+    assertTrue(isValid(e));
+    assertFalse(isValid(c));
+    assertFalse(isValid(a));
+    assertTrue(isValid(d));
+    assertEquals(90, cache.getSize());
+  }
+}
@@ -19,12 +19,15 @@
 package org.apache.hadoop.hive.ql.exec;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -39,6 +42,7 @@
 import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.FetchWork;
 import org.apache.hadoop.hive.ql.plan.MapredWork;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.PartitionDesc;
@@ -48,6 +52,7 @@
 import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.ql.processors.CommandProcessorResponse;
 import org.apache.hadoop.hive.ql.session.SessionState;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.InspectableObject;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
@@ -56,9 +61,12 @@
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapred.TextInputFormat;
 import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.junit.Assert;
@@ -444,6 +452,102 @@ public void testFetchOperatorContext() throws Exception {
     driver.close();
   }
 
+  /**
+   * A text input format counting the readers it opens and closes.
+   */
+  public static class ReadAheadInFmt extends TextInputFormat {
+    static final AtomicInteger OPENED = new AtomicInteger();
+    static final AtomicInteger CLOSED = new AtomicInteger();
+
+    @Override
+    public RecordReader<LongWritable, Text> getRecordReader(InputSplit split, JobConf job,
+        Reporter reporter) throws IOException {
+      final RecordReader<LongWritable, Text> reader = super.getRecordReader(split, job, reporter);
+      OPENED.incrementAndGet();
+      return new RecordReader<LongWritable, Text>() {
+        @Override
+        public boolean next(LongWritable key, Text value) throws IOException {
+          return reader.next(key, value);
+        }
+
+        @Override
+        public LongWritable createKey() {
+          return reader.createKey();
+        }
+
+        @Override
+        public Text createValue() {
+          return reader.createValue();
+        }
+
+        @Override
+        public long getPos() throws IOException {
+          return reader.getPos();
+        }
+
+        @Override
+        public void close() throws IOException {
+          CLOSED.incrementAndGet();
+          reader.close();
+        }
+
+        @Override
+        public float getProgress() throws IOException {
+          return reader.getProgress();
+        }
+      };
+    }
+  }
+
+  private static Path writeFetchFiles(int numFiles, int numRows) throws IOException {
+    java.nio.file.Path dir = Files.createTempDirectory("fetch-read-ahead");
+    for (int i = 0; i < numFiles; i++) {
+      List<String> lines = new ArrayList<String>();
+      for (int j = 0; j < numRows; j++) {
+        lines.add(i + "-" + j);
+      }
+      Files.write(dir.resolve("00000" + i + "_0"), lines, StandardCharsets.UTF_8);
+    }
+    return new Path(dir.toUri());
+  }
+
+  private static List<String> fetchRows(Path dir, boolean readAhead, int maxRows) throws Exception {
+    JobConf job = new JobConf();
+    HiveConf.setBoolVar(job, HiveConf.ConfVars.HIVEFETCHTASKREADAHEAD, readAhead);
+    // Sorts the splits by path
+    HiveConf.setBoolVar(job, HiveConf.ConfVars.HIVE_IN_TEST, true);
+    TableDesc tableDesc =
+        PlanUtils.getDefaultTableDesc("" + Utilities.ctrlaCode, "a", "string", false);
+    tableDesc.setInputFileFormatClass(ReadAheadInFmt.class);
+    FetchOperator fetchOp = new FetchOperator(new FetchWork(dir, tableDesc), job);
+    List<String> rows = new ArrayList<String>();
+    InspectableObject row;
+    while (rows.size() < maxRows && (row = fetchOp.getNextRow()) != null) {
+      rows.add(SerDeUtils.getJSONString(row.o, row.oi));
+    }
+    fetchOp.clearFetchContext();
+    return rows;
+  }
+
+  @Test
+  public void testFetchOperatorReadAhead() throws Exception {
+    Path dir = writeFetchFiles(3, 4);
+    List<String> rows = fetchRows(dir, false, Integer.MAX_VALUE);
+    assertEquals(12, rows.size());
+    assertEquals(rows, fetchRows(dir, true, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testFetchOperatorReadAheadClosed() throws Exception {
+    Path dir = writeFetchFiles(3, 4);
+    ReadAheadInFmt.OPENED.set(0);
+    ReadAheadInFmt.CLOSED.set(0);
+    assertEquals(1, fetchRows(dir, true, 1).size());
+    // The reader of the first split, and the one of the second split opened ahead but unused
+    assertEquals(2, ReadAheadInFmt.OPENED.get());
+    assertEquals(2, ReadAheadInFmt.CLOSED.get());
+  }
+
   @Test
   public void testNoConditionalTaskSizeForLlap() {
     ConvertJoinMapJoin convertJoinMapJoin = new ConvertJoinMapJoin();
@@ -673,6 +673,41 @@ public void testDropPartitionsWithPurge() throws Exception {
     }
   }
 
+  /**
+   * Test that all the partitions of a table are listed in batches, and that partitions dropped
+   * after their names were listed are skipped.
+   */
+  @Test
+  public void testGetAllPartitionsInBatches() throws Exception {
+    String dbName = Warehouse.DEFAULT_DATABASE_NAME;
+    String tableName = "table_for_testGetAllPartitionsInBatches";
+    HiveConf conf = hm.getConf();
+    int batchMax = conf.getIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX);
+    try {
+      conf.setIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX, 1);
+      conf.setBoolVar(ConfVars.METASTORE_BATCH_RETRIEVE_ALL_PARTITIONS, true);
+      Table table = createPartitionedTable(dbName, tableName);
+      for (String hr : new String[] {"10", "11", "12"}) {
+        hm.createPartition(table, ImmutableMap.of("ds", "20141216", "hr", hr));
+      }
+
+      assertEquals(3, hm.getAllPartitionsOf(table).size());
+
+      // The names are listed when the iterable is created; the first batch then comes back empty.
+      PartitionIterable parts = hm.getAllPartitionsIterable(table);
+      hm.dropPartition(dbName, tableName, Lists.newArrayList("20141216", "10"), false);
+      List<String> hrs = new ArrayList<String>();
+      for (Partition part : parts) {
+        hrs.add(part.getValues().get(1));
+      }
+      assertEquals(Lists.newArrayList("11", "12"), hrs);
+    } finally {
+      conf.setIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX, batchMax);
+      conf.setBoolVar(ConfVars.METASTORE_BATCH_RETRIEVE_ALL_PARTITIONS, false);
+      cleanUpTableQuietly(dbName, tableName);
+    }
+  }
+
   /**
    * Test that tables set up with auto-purge skip trash-directory when tables/partitions are dropped.
    * @throws Throwable
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.metadata;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.hadoop.hive.common.ValidReaderWriteIdList;
+import org.apache.hadoop.hive.common.ValidTxnWriteIdList;
+import org.apache.hadoop.hive.ql.lockmgr.HiveTxnManager;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests which write ids the outdated materializations are augmented with.
+ */
+public class TestHiveMaterializationWriteIds {
+
+  private static final String VALID_TXNS = "10:9223372036854775807::";
+
+  private HiveTxnManager txnMgr;
+  private ValidTxnWriteIdList queryTxnWriteIds;
+  private ValidTxnWriteIdList snapshotTxnWriteIds;
+
+  private static ValidTxnWriteIdList writeIds(String... tableNames) {
+    ValidTxnWriteIdList writeIds = new ValidTxnWriteIdList(10L);
+    for (String tableName : tableNames) {
+      writeIds.addTableValidWriteIdList(
+          new ValidReaderWriteIdList(tableName, new long[0], new BitSet(), 5));
+    }
+    return writeIds;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    txnMgr = mock(HiveTxnManager.class);
+    // The query reads t1 and t2
+    queryTxnWriteIds = writeIds("default.t1", "default.t2");
+    snapshotTxnWriteIds = writeIds("default.t1", "default.t3");
+    when(txnMgr.getValidWriteIds(anyListOf(String.class), anyString()))
+        .thenReturn(snapshotTxnWriteIds);
+  }
+
+  @Test
+  public void testQueryWriteIdsReused() throws Exception {
+    List<String> tablesUsed = Arrays.asList("default.t1", "default.t2");
+    assertSame(queryTxnWriteIds, Hive.getMaterializationTxnWriteIds(
+        tablesUsed, VALID_TXNS, queryTxnWriteIds, txnMgr));
+    // A subset of the tables of the query
+    assertSame(queryTxnWriteIds, Hive.getMaterializationTxnWriteIds(
+        Arrays.asList("default.t2"), VALID_TXNS, queryTxnWriteIds, txnMgr));
+    verify(txnMgr, never()).getValidWriteIds(anyListOf(String.class), anyString());
+  }
+
+  @Test
+  public void testTableNotReadByQueryFetched() throws Exception {
+    // The materialization also reads t3, which the query doesn't
+    List<String> tablesUsed = Arrays.asList("default.t1", "default.t3");
+    assertSame(snapshotTxnWriteIds, Hive.getMaterializationTxnWriteIds(
+        tablesUsed, VALID_TXNS, queryTxnWriteIds, txnMgr));
+    verify(txnMgr).getValidWriteIds(tablesUsed, VALID_TXNS);
+  }
+
+  @Test
+  public void testNoQueryWriteIdsFetched() throws Exception {
+    List<String> tablesUsed = Arrays.asList("default.t1");
+    assertSame(snapshotTxnWriteIds, Hive.getMaterializationTxnWriteIds(
+        tablesUsed, VALID_TXNS, null, txnMgr));
+    verify(txnMgr).getValidWriteIds(tablesUsed, VALID_TXNS);
+  }
+}
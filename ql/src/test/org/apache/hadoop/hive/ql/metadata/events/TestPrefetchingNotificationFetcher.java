@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hadoop.hive.ql.metadata.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.junit.Test;
+
+public class TestPrefetchingNotificationFetcher {
+
+  /**
+   * Serves the events 1 to numEvents, batchSize at a time, and records the positions asked for.
+   */
+  private static class FakeNotificationFetcher implements EventUtils.NotificationFetcher {
+    private final int numEvents;
+    private final int batchSize;
+    final List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+
+    FakeNotificationFetcher(int numEvents, int batchSize) {
+      this.numEvents = numEvents;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    @Override
+    public long getCurrentNotificationEventId() {
+      return numEvents;
+    }
+
+    @Override
+    public long getDbNotificationEventsCount(long fromEventId, String dbName, Long toEventId,
+                                             int limit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<NotificationEvent> getNextNotificationEvents(
+        long pos, IMetaStoreClient.NotificationFilter filter) throws IOException {
+      positions.add(pos);
+      List<NotificationEvent> events = new ArrayList<>();
+      for (long id = pos + 1; id <= numEvents && events.size() < batchSize; id++) {
+        NotificationEvent event = new NotificationEvent();
+        event.setEventId(id);
+        events.add(event);
+      }
+      return events;
+    }
+  }
+
+  private static List<Long> readAll(EventUtils.NotificationFetcher fetcher, long from)
+      throws IOException {
+    List<Long> ids = new ArrayList<>();
+    EventUtils.NotificationEventIterator it =
+        new EventUtils.NotificationEventIterator(fetcher, from, -1, (IMetaStoreClient.NotificationFilter) null);
+    while (it.hasNext()) {
+      ids.add(it.next().getEventId());
+    }
+    return ids;
+  }
+
+  private static List<Long> range(long from, long to) {
+    List<Long> ids = new ArrayList<>();
+    for (long id = from; id <= to; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  @Test
+  public void testEventsInOrder() throws Exception {
+    FakeNotificationFetcher foreground = new FakeNotificationFetcher(10, 3);
+    FakeNotificationFetcher background = new FakeNotificationFetcher(10, 3);
+    EventUtils.PrefetchingNotificationFetcher fetcher =
+        new EventUtils.PrefetchingNotificationFetcher(foreground, background);
+    try {
+      assertEquals(range(1, 10), readAll(fetcher, 0));
+    } finally {
+      fetcher.close();
+    }
+    // Only the first batch is read by the caller, each following one is prefetched
+    assertEquals(Arrays.asList(0L), foreground.positions);
+    assertEquals(Arrays.asList(3L, 6L, 9L, 10L), background.positions);
+  }
+
+  @Test
+  public void testLastBatchFull() throws Exception {
+    FakeNotificationFetcher foreground = new FakeNotificationFetcher(9, 3);
+    FakeNotificationFetcher background = new FakeNotificationFetcher(9, 3);
+    EventUtils.PrefetchingNotificationFetcher fetcher =
+        new EventUtils.PrefetchingNotificationFetcher(foreground, background);
+    try {
+      assertEquals(range(4, 9), readAll(fetcher, 3));
+    } finally {
+      fetcher.close();
+    }
+    // The empty batch after the last event ends the iteration, without prefetching again
+    assertEquals(Arrays.asList(3L), foreground.positions);
+    assertEquals(Arrays.asList(6L, 9L), background.positions);
+  }
+
+  @Test
+  public void testPrefetchedBatchNotAskedFor() throws Exception {
+    FakeNotificationFetcher foreground = new FakeNotificationFetcher(10, 3);
+    FakeNotificationFetcher background = new FakeNotificationFetcher(10, 3);
+    EventUtils.PrefetchingNotificationFetcher fetcher =
+        new EventUtils.PrefetchingNotificationFetcher(foreground, background);
+    try {
+      assertEquals(range(1, 3), ids(fetcher.getNextNotificationEvents(0, null)));
+      // The caller skipped ahead, the batch after event 3 is not the one it asks for
+      assertEquals(range(6, 8), ids(fetcher.getNextNotificationEvents(5, null)));
+      assertEquals(range(9, 10), ids(fetcher.getNextNotificationEvents(8, null)));
+    } finally {
+      fetcher.close();
+    }
+    assertEquals(Arrays.asList(0L, 5L), foreground.positions);
+  }
+
+  @Test
+  public void testCloseLetsInFlightFetchComplete() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch finished = new CountDownLatch(1);
+    final boolean[] interrupted = new boolean[1];
+    FakeNotificationFetcher background = new FakeNotificationFetcher(10, 3) {
+      @Override
+      public List<NotificationEvent> getNextNotificationEvents(
+          long pos, IMetaStoreClient.NotificationFilter filter) throws IOException {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          interrupted[0] = true;
+        }
+        finished.countDown();
+        return super.getNextNotificationEvents(pos, filter);
+      }
+    };
+    EventUtils.PrefetchingNotificationFetcher fetcher =
+        new EventUtils.PrefetchingNotificationFetcher(new FakeNotificationFetcher(10, 3), background);
+    fetcher.getNextNotificationEvents(0, null);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    fetcher.close();
+    assertFalse(finished.await(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(finished.await(10, TimeUnit.SECONDS));
+    assertFalse(interrupted[0]);
+  }
+
+  private static List<Long> ids(List<NotificationEvent> events) {
+    List<Long> ids = new ArrayList<>();
+    for (NotificationEvent event : events) {
+      ids.add(event.getEventId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.optimizer.calcite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.junit.Test;
+
+public class TestRelOptHiveTableColStatsFetch {
+
+  @Test
+  public void testEachThreadClosesItsConnection() throws Exception {
+    List<Hive> connections = Collections.synchronizedList(new ArrayList<>());
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    RelOptHiveTable.forEachWithMetastore(Arrays.asList(1, 2, 3, 4, 5, 6), 2,
+        () -> {
+          Hive db = mock(Hive.class);
+          connections.add(db);
+          return db;
+        },
+        (db, item) -> {
+          assertTrue(connections.contains(db));
+          threads.add(Thread.currentThread());
+          processed.add(item);
+        });
+
+    assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, 6)), processed);
+    // One connection per thread, all of them closed, and no thread left behind
+    assertTrue(connections.size() <= 2);
+    for (Hive db : connections) {
+      verify(db).close(true);
+    }
+    for (Thread thread : threads) {
+      thread.join(10000);
+      assertFalse(thread.isAlive());
+    }
+  }
+
+  @Test
+  public void testPoolSizedByItems() throws Exception {
+    List<Hive> connections = Collections.synchronizedList(new ArrayList<>());
+
+    RelOptHiveTable.forEachWithMetastore(Arrays.asList(1, 2), 8,
+        () -> {
+          Hive db = mock(Hive.class);
+          connections.add(db);
+          return db;
+        },
+        (db, item) -> { });
+
+    assertTrue(connections.size() <= 2);
+  }
+
+  @Test
+  public void testFailedItemDoesNotStopOthers() throws Exception {
+    List<Hive> connections = Collections.synchronizedList(new ArrayList<>());
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+    RelOptHiveTable.forEachWithMetastore(Arrays.asList(1, 2, 3), 1,
+        () -> {
+          Hive db = mock(Hive.class);
+          connections.add(db);
+          return db;
+        },
+        (db, item) -> {
+          if (item == 2) {
+            throw new RuntimeException("failed");
+          }
+          processed.add(item);
+        });
+
+    assertEquals(new HashSet<>(Arrays.asList(1, 3)), processed);
+    assertEquals(1, connections.size());
+    verify(connections.get(0)).close(true);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.optimizer.ppr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestPrunePartitionNames {
+
+  private static final String DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+  private static final List<String> PART_COLS = Arrays.asList("ds", "hr");
+  private static final List<PrimitiveTypeInfo> PART_COL_TYPES =
+      Arrays.asList(TypeInfoFactory.stringTypeInfo, TypeInfoFactory.intTypeInfo);
+
+  private static List<String> partitionNames() {
+    List<String> names = new ArrayList<>();
+    for (String ds : new String[] { "2019-12-31", "2020-01-01", "2020-01-02" }) {
+      for (int hr = 0; hr < 3; ++hr) {
+        names.add("ds=" + ds + "/hr=" + hr);
+      }
+    }
+    names.add("ds=" + DEFAULT_PARTITION + "/hr=0");
+    return names;
+  }
+
+  private static ExprNodeGenericFuncDesc equalDs(String ds) {
+    return new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo, new GenericUDFOPEqual(),
+        Arrays.<ExprNodeDesc>asList(
+            new ExprNodeColumnDesc(TypeInfoFactory.stringTypeInfo, "ds", "t", true),
+            new ExprNodeConstantDesc(TypeInfoFactory.stringTypeInfo, ds)));
+  }
+
+  private static ExprNodeGenericFuncDesc hrGreaterThan(int hr) {
+    return new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo, new GenericUDFOPGreaterThan(),
+        Arrays.<ExprNodeDesc>asList(
+            new ExprNodeColumnDesc(TypeInfoFactory.intTypeInfo, "hr", "t", true),
+            new ExprNodeConstantDesc(TypeInfoFactory.intTypeInfo, hr)));
+  }
+
+  @Test
+  public void testSubsetOfColumns() throws Exception {
+    // Only ds is referenced, so the result is reused for all the hours of a day.
+    List<String> names = partitionNames();
+    boolean hasUnknown = PartitionPruner.prunePartitionNames(
+        PART_COLS, PART_COL_TYPES, equalDs("2020-01-01"), DEFAULT_PARTITION, names);
+    assertFalse(hasUnknown);
+    assertEquals(Arrays.asList("ds=2020-01-01/hr=0", "ds=2020-01-01/hr=1", "ds=2020-01-01/hr=2"),
+        names);
+  }
+
+  @Test
+  public void testAllColumns() throws Exception {
+    List<String> names = partitionNames();
+    ExprNodeGenericFuncDesc expr = new ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo,
+        new GenericUDFOPAnd(), Arrays.<ExprNodeDesc>asList(equalDs("2020-01-02"), hrGreaterThan(0)));
+    boolean hasUnknown = PartitionPruner.prunePartitionNames(
+        PART_COLS, PART_COL_TYPES, expr, DEFAULT_PARTITION, names);
+    assertFalse(hasUnknown);
+    assertEquals(Arrays.asList("ds=2020-01-02/hr=1", "ds=2020-01-02/hr=2"), names);
+  }
+}
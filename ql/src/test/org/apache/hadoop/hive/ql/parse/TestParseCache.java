@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.parse;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.Context;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestParseCache {
+  private static HiveConf conf = new HiveConf(SemanticAnalyzer.class);
+
+  @BeforeClass
+  public static void initialize() {
+    SessionState.start(conf);
+  }
+
+  private static void assertParsedLikeUncached(ParseCache cache, String query) throws Exception {
+    Context ctx = new Context(conf);
+    ASTNode cached = cache.parse(query, ctx);
+    ASTNode uncached = ParseUtils.parseUncached(query, new Context(conf), null);
+    Assert.assertEquals(uncached.dump(), cached.dump());
+    Assert.assertEquals(query, ctx.getTokenRewriteStream().toString());
+  }
+
+  @Test
+  public void testLiteralsRebound() throws Exception {
+    ParseCache cache = new ParseCache(1 << 20);
+    assertParsedLikeUncached(cache,
+        "select a, 'x' from t where b = 1 and c in ('p', 'q') limit 10");
+    assertParsedLikeUncached(cache,
+        "select a, 'y' from t where b = 25 and c in ('r', 'p') limit 5");
+  }
+
+  @Test
+  public void testIntervalLiteralsRebound() throws Exception {
+    ParseCache cache = new ParseCache(1 << 20);
+    assertParsedLikeUncached(cache, "select a + interval '1' day from t");
+    assertParsedLikeUncached(cache, "select a + interval '7' day from t");
+  }
+
+  @Test
+  public void testDerivedLiteralNotRebound() throws Exception {
+    ParseCache cache = new ParseCache(1 << 20);
+    // The length of the varchar is copied into a node of its own, so the query is parsed again.
+    assertParsedLikeUncached(cache, "select cast(a as varchar(10) format 'yyyy') from t");
+    assertParsedLikeUncached(cache, "select cast(a as varchar(20) format 'yyyy') from t");
+  }
+
+  @Test
+  public void testBoundedByWeight() throws Exception {
+    String query = "select a from t where b = 1";
+    ParseCache cache = new ParseCache(1);
+    assertParsedLikeUncached(cache, query);
+    Assert.assertEquals(0, cache.size());
+    cache = new ParseCache(1 << 20);
+    assertParsedLikeUncached(cache, query);
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testParseErrorOnMiss() throws Exception {
+    ParseCache cache = new ParseCache(1 << 20);
+    // Lexed fine, the tokens are handed to the parser which reports the error.
+    try {
+      cache.parse("select a from t where", new Context(conf));
+      Assert.fail("ParseException should have happened.");
+    } catch (ParseException e) {
+      // Expected exception
+    }
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testShape() {
+    ParseDriver pd = new ParseDriver();
+    String shape1 = ParseCache.getShape(
+        pd.tokenize("select * from t where b = 1", conf).getTokens(), conf);
+    String shape2 = ParseCache.getShape(
+        pd.tokenize("select * from t where b = 2", conf).getTokens(), conf);
+    String shape3 = ParseCache.getShape(
+        pd.tokenize("select * from t where c = 2", conf).getTokens(), conf);
+    Assert.assertEquals(shape1, shape2);
+    Assert.assertNotEquals(shape1, shape3);
+  }
+}
@@ -255,25 +255,14 @@ BitSet getNulls() {
     return nulls;
   }
 
-  private static final byte[] MASKS = new byte[] {
-      0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, (byte)0x80
-  };
-
+  // The null masks are little endian bit sets, as read and written by BitSet a word at a time.
   private static BitSet toBitset(byte[] nulls) {
-    BitSet bitset = new BitSet();
-    int bits = nulls.length * 8;
-    for (int i = 0; i < bits; i++) {
-      bitset.set(i, (nulls[i / 8] & MASKS[i % 8]) != 0);
-    }
-    return bitset;
+    return BitSet.valueOf(nulls);
   }
 
   private static byte[] toBinary(BitSet bitset) {
-    byte[] nulls = new byte[1 + (bitset.length() / 8)];
-    for (int i = 0; i < bitset.length(); i++) {
-      nulls[i / 8] |= bitset.get(i) ? MASKS[i % 8] : 0;
-    }
-    return nulls;
+    // Keep the trailing zero byte sent by older versions when the length is a multiple of 8.
+    return Arrays.copyOf(bitset.toByteArray(), 1 + (bitset.length() / 8));
   }
 
   public Type getType() {
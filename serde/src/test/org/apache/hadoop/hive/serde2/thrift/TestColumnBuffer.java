@@ -19,6 +19,7 @@
 
 import com.google.code.tempusfugit.concurrency.RepeatingRule;
 import com.google.code.tempusfugit.concurrency.annotations.Repeating;
+import org.apache.hive.service.rpc.thrift.TColumn;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -143,6 +144,30 @@ private static void verifyNulls(ColumnBuffer buffer, int shift) {
     }
   }
 
+  @Test
+  public void testNullsInTColumn() {
+    prepareNullIndices();
+    BitSet nulls = new BitSet(NUM_VARS);
+    for (int index : nullIndices) {
+      nulls.set(index);
+    }
+
+    TColumn tColumn = new ColumnBuffer(type, nulls, vars).toTColumn();
+    ColumnBuffer columnBuffer = new ColumnBuffer(tColumn);
+    assertEquals(NUM_VARS, columnBuffer.size());
+    verifyNulls(columnBuffer, 0);
+  }
+
+  @Test
+  public void testNullMaskLength() {
+    BitSet nulls = new BitSet();
+    nulls.set(7);
+    ColumnBuffer columnBuffer =
+        new ColumnBuffer(Type.BIGINT_TYPE, nulls, new long[] {0, 0, 0, 0, 0, 0, 0, 0});
+    byte[] mask = columnBuffer.toTColumn().getI64Val().getNulls();
+    assertArrayEquals(new byte[] {(byte) 0x80, 0}, mask);
+  }
+
   @Test
   public void testAddValues() {
     switch (type) {
@@ -21,6 +21,7 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivilegedExceptionAction;
 import java.sql.SQLException;
@@ -81,6 +82,8 @@
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
 
+import com.google.common.annotations.VisibleForTesting;
+
 /**
  * SQLOperation.
  *
@@ -129,6 +132,11 @@ public SQLOperation(HiveSession parentSession, String statement, Map<String, Str
     }
   }
 
+  @VisibleForTesting
+  void setDriver(IDriver driver) {
+    this.driver = driver;
+  }
+
   @Override
   public boolean shouldRunAsync() {
     return runAsync;
@@ -472,7 +480,11 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows)
         driver.resetFetch();
       }
       fetchStarted = true;
-      driver.setMaxRows((int) maxRows);
+      long maxBytes = isBlobBased ? 0 : HiveConf.getSizeVar(queryState.getConf(),
+          HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_MAX_FETCH_BYTES);
+      if (maxBytes > 0) {
+        return fetchUpTo(rowSet, (int) maxRows, maxBytes);
+      }
       if (driver.getResults(convey)) {
         return decode(convey, rowSet);
       }
@@ -486,6 +498,49 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows)
     }
   }
 
+  /**
+   * Fetches the rows in chunks, until there are maxRows of them or their size reaches maxBytes.
+   */
+  private RowSet fetchUpTo(RowSet rowSet, int maxRows, long maxBytes) throws Exception {
+    int chunkSize = HiveConf.getIntVar(queryState.getConf(),
+        HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE);
+    long bytes = 0;
+    while (rowSet.numRows() < maxRows && bytes < maxBytes) {
+      driver.setMaxRows(Math.max(1, Math.min(chunkSize, maxRows - rowSet.numRows())));
+      if (!driver.getResults(convey)) {
+        break;
+      }
+      for (Object row : convey) {
+        bytes += estimateRowSize(row);
+      }
+      decode(convey, rowSet);
+      convey.clear();
+    }
+    return rowSet;
+  }
+
+  private static long estimateRowSize(Object row) {
+    if (!(row instanceof Object[])) {
+      return estimateFieldSize(row);
+    }
+    long size = 0;
+    for (Object field : (Object[]) row) {
+      size += estimateFieldSize(field);
+    }
+    return size;
+  }
+
+  private static long estimateFieldSize(Object field) {
+    if (field instanceof String) {
+      return ((String) field).length();
+    } else if (field instanceof byte[]) {
+      return ((byte[]) field).length;
+    } else if (field instanceof ByteBuffer) {
+      return ((ByteBuffer) field).remaining();
+    }
+    return 8;
+  }
+
   @Override
   public String getTaskStatus() throws HiveSQLException {
     if (driver != null) {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.service.cli.operation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Schema;
+import org.apache.hadoop.hive.ql.IDriver;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.apache.hive.service.cli.FetchOrientation;
+import org.apache.hive.service.cli.OperationState;
+import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.session.HiveSession;
+import org.apache.hive.service.rpc.thrift.TProtocolVersion;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.Maps;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests fetching the results of a SQLOperation.
+ */
+public class TestSQLOperationFetch {
+
+  private SQLOperation operation;
+  private final Deque<Object[]> results = new ArrayDeque<>();
+  private int maxRows;
+
+  @Before
+  public void setup() throws Exception {
+    HiveConf conf = new HiveConf();
+    conf.setIntVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_DEFAULT_FETCH_SIZE, 2);
+    conf.setVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_MAX_FETCH_BYTES, "25");
+
+    HiveSession session = mock(HiveSession.class);
+    when(session.getHiveConf()).thenReturn(conf);
+    when(session.getSessionState()).thenReturn(mock(SessionState.class));
+    when(session.getUserName()).thenReturn("userName");
+    when(session.getProtocolVersion()).thenReturn(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V10);
+
+    IDriver driver = mock(IDriver.class);
+    when(driver.getSchema()).thenReturn(
+        new Schema(Arrays.asList(new FieldSchema("c", "string", null)), null));
+    when(driver.isFetchingTable()).thenReturn(true);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        maxRows = (Integer) invocation.getArguments()[0];
+        return null;
+      }
+    }).when(driver).setMaxRows(anyInt());
+    when(driver.getResults(anyList())).thenAnswer(new Answer<Boolean>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Boolean answer(InvocationOnMock invocation) {
+        List<Object> res = (List<Object>) invocation.getArguments()[0];
+        for (int i = 0; i < maxRows && !results.isEmpty(); ++i) {
+          res.add(results.poll());
+        }
+        return !res.isEmpty();
+      }
+    });
+
+    operation = new SQLOperation(session, "select * from dummy",
+        Maps.<String, String>newHashMap(), false, 0L);
+    operation.setDriver(driver);
+    operation.setState(OperationState.RUNNING);
+    operation.setState(OperationState.FINISHED);
+  }
+
+  @Test
+  public void testFetchBoundedBySize() throws Exception {
+    for (int i = 0; i < 6; ++i) {
+      results.add(new Object[] { "row" + i + "------" });
+    }
+    // 10 bytes per row, so the fetch stops after the second chunk of 2 rows.
+    RowSet rowSet = operation.getNextRowSet(FetchOrientation.FETCH_NEXT, 10);
+    Assert.assertEquals(4, rowSet.numRows());
+    Assert.assertEquals("row0------", rowSet.iterator().next()[0]);
+
+    rowSet = operation.getNextRowSet(FetchOrientation.FETCH_NEXT, 10);
+    Assert.assertEquals(2, rowSet.numRows());
+    Assert.assertEquals("row4------", rowSet.iterator().next()[0]);
+
+    rowSet = operation.getNextRowSet(FetchOrientation.FETCH_NEXT, 10);
+    Assert.assertEquals(0, rowSet.numRows());
+  }
+
+  @Test
+  public void testFetchBoundedByRows() throws Exception {
+    for (int i = 0; i < 6; ++i) {
+      results.add(new Object[] { "r" + i });
+    }
+    RowSet rowSet = operation.getNextRowSet(FetchOrientation.FETCH_NEXT, 3);
+    Assert.assertEquals(3, rowSet.numRows());
+    rowSet = operation.getNextRowSet(FetchOrientation.FETCH_NEXT, 10);
+    Assert.assertEquals(3, rowSet.numRows());
+  }
+}
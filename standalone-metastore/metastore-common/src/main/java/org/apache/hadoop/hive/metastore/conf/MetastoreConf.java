@@ -298,6 +298,24 @@ public enum ConfVars {
     AGGREGATE_STATS_CACHE_TTL("metastore.aggregate.stats.cache.ttl",
         "hive.metastore.aggregate.stats.cache.ttl", 600, TimeUnit.SECONDS,
         "Number of seconds for a cached node to be active in the cache before they become stale."),
+    AGGREGATE_STATS_ROLLUP_ENABLED("metastore.aggregate.stats.rollup.enabled",
+        "hive.metastore.aggregate.stats.rollup.enabled", false,
+        "Whether column stats aggregated over partitions with bit vectors are rolled up and reused\n" +
+            "per group of partitions sharing all but the last partition key value (e.g. all the days\n" +
+            "of a month), so that aggregating over a range of partitions only reads the stats of the\n" +
+            "groups which are not fully covered by the range. The roll-ups are kept in the memory of\n" +
+            "each metastore instance: changes made through other instances are not seen until the\n" +
+            "roll-ups expire, so with several metastores the aggregates may be stale for up to\n" +
+            "metastore.aggregate.stats.rollup.ttl."),
+    AGGREGATE_STATS_ROLLUP_SIZE("metastore.aggregate.stats.rollup.size",
+        "hive.metastore.aggregate.stats.rollup.size", 100000,
+        "Maximum number of rolled up column stats, one per column and group of partitions."),
+    AGGREGATE_STATS_ROLLUP_TTL("metastore.aggregate.stats.rollup.ttl",
+        "hive.metastore.aggregate.stats.rollup.ttl", 600, TimeUnit.SECONDS,
+        "Number of seconds a rolled up column stat is used for. Stats updates, and partition or\n" +
+            "table drops and alters, made through this metastore invalidate the roll-ups of the\n" +
+            "table immediately; those made through other metastores are only seen once the roll-ups\n" +
+            "expire."),
     ALTER_HANDLER("metastore.alter.handler", "hive.metastore.alter.impl",
         HIVE_ALTER_HANDLE_CLASS,
         "Alter handler.  For now defaults to the Hive one.  Really need a better default option"),
@@ -901,6 +919,19 @@ public enum ConfVars {
         "org.apache.hadoop.hive.metastore.ObjectStore",
         "Name of the class that implements org.apache.riven.rawstore interface. \n" +
             "This class is used to store and retrieval of raw metadata objects such as table, database"),
+    READ_REPLICA_CONNECT_URL("metastore.read.replica.connect.url",
+        "hive.metastore.read.replica.connect.url", "",
+        "JDBC connect string of a read replica of the metastore database. If set, and\n" +
+            "metastore.rawstore.impl is ObjectStore, read-only RawStore calls made outside of a\n" +
+            "transaction are served from the replica as long as it has caught up with the notification\n" +
+            "events written through the primary database. Transactions, locks and all writes always use\n" +
+            "the primary database. Requires DbNotificationListener in " +
+            "metastore.transactional.event.listeners, otherwise the replica is not used."),
+    READ_REPLICA_CHECK_INTERVAL("metastore.read.replica.check.interval",
+        "hive.metastore.read.replica.check.interval", 1, TimeUnit.SECONDS,
+        "How often the last notification event id of the primary database and the read replica are\n" +
+            "compared. Bounds how stale metadata read from the replica can be, in addition to the\n" +
+            "replication lag itself."),
     REPLCMDIR("metastore.repl.cmrootdir", "hive.repl.cmrootdir", "/user/${system:user.name}/cmroot/",
         "Root dir for ChangeManager, used for deleted files."),
     REPLCMRETIAN("metastore.repl.cm.retain", "hive.repl.cm.retain",  24, TimeUnit.HOURS,
@@ -1112,6 +1143,17 @@ public enum ConfVars {
             "select query has incorrect syntax or something similar inside a transaction, the\n" +
             "entire transaction will fail and fall-back to DataNucleus will not be possible. You\n" +
             "should disable the usage of direct SQL inside transactions if that happens in your case."),
+    TXN_CHECK_LOCK_SHARDS("metastore.txn.checklock.shards", "metastore.txn.checklock.shards", 1,
+        "Number of shards the mutex serializing lock acquisition in the transaction manager is split\n" +
+            "into. Lock requests are assigned to shards by database, so with more than 1 shard, lock\n" +
+            "requests on different databases can be checked for conflicts in parallel. Each shard\n" +
+            "may hold an additional connection from the metastore mutex connection pool.\n" +
+            "All the metastores sharing a database must use the same value, so the first metastore to\n" +
+            "check a lock records its value in AUX_TABLE (MT_KEY1='CheckLock.shards'), and every\n" +
+            "metastore uses the recorded value from then on, logging a warning if its own differs.\n" +
+            "To change it, stop all the metastores and update or delete that row. Metastore versions\n" +
+            "without this setting always use 1 shard, so do not run them against a database where\n" +
+            "a higher value is recorded."),
     TXN_MAX_OPEN_BATCH("metastore.txn.max.open.batch", "hive.txn.max.open.batch", 1000,
         "Maximum number of transactions that can be fetched in one call to open_txns().\n" +
             "This controls how many transactions streaming agents such as Flume or Storm open\n" +
@@ -1120,6 +1162,13 @@ public enum ConfVars {
             "of delta files created by streaming agents. But it also increases the number of open\n" +
             "transactions that Hive has to track at any given time, which may negatively affect\n" +
             "read performance."),
+    TXN_OPENTXNS_SNAPSHOT_MAX_AGE("metastore.txn.opentxns.snapshot.max.age",
+        "metastore.txn.opentxns.snapshot.max.age", 0, TimeUnit.MILLISECONDS,
+        "If positive, the metastore keeps an in-memory snapshot of the open transaction list and\n" +
+            "serves get_open_txns() from it. The snapshot is invalidated by every change to the\n" +
+            "transaction table made through this metastore; changes made through other metastore\n" +
+            "instances sharing the same database become visible after at most this long. 0 disables\n" +
+            "the snapshot."),
     TXN_RETRYABLE_SQLEX_REGEX("metastore.txn.retryable.sqlex.regex",
         "hive.txn.retryable.sqlex.regex", "", "Comma separated list\n" +
         "of regular expression patterns for SQL state, error code, and error message of\n" +
@@ -3766,6 +3766,8 @@ private List<Partition> add_partitions_core(final RawStore ms, String catName,
         Set<PartValEqWrapperLite> partsToAdd = new HashSet<>(parts.size());
         List<Partition> partitionsToAdd = new ArrayList<>(parts.size());
         List<FieldSchema> partitionKeys = tbl.getPartitionKeys();
+        Map<String, Boolean> partitionsExist =
+            lookupPartitionsExist(ms, catName, dbName, tblName, partitionKeys, parts);
         for (final Partition part : parts) {
           // Collect partition column stats to be updated if present. Partition objects passed down
           // here at the time of replication may have statistics in them, which is required to be
@@ -3782,7 +3784,7 @@ private List<Partition> add_partitions_core(final RawStore ms, String catName,
           // folders are submitted. This way we can be sure that no partition and no partition
           // folder will be created if the list contains an invalid partition.
           if (validatePartition(part, catName, tblName, dbName, partsToAdd, ms, ifNotExists,
-              partitionKeys)) {
+              partitionKeys, partitionsExist)) {
             partitionsToAdd.add(part);
           } else {
             existingParts.add(part);
@@ -3899,13 +3901,16 @@ private void cleanupPartitionFolders(final Map<PartValEqWrapperLite, Boolean> ad
      * @param partsToAdd
      * @param ms
      * @param ifNotExists
+     * @param partitionKeys
+     * @param partitionsExist result of {@link #lookupPartitionsExist}, or null
      * @return
      * @throws MetaException
      * @throws TException
      */
     private boolean validatePartition(final Partition part, final String catName,
         final String tblName, final String dbName, final Set<PartValEqWrapperLite> partsToAdd,
-        final RawStore ms, final boolean ifNotExists, List<FieldSchema> partitionKeys) throws MetaException, TException {
+        final RawStore ms, final boolean ifNotExists, List<FieldSchema> partitionKeys,
+        Map<String, Boolean> partitionsExist) throws MetaException, TException {
 
       if (part.getDbName() == null || part.getTableName() == null) {
         throw new MetaException("The database and table name must be set in the partition.");
@@ -3928,7 +3933,7 @@ private boolean validatePartition(final Partition part, final String catName,
         throw new MetaException("Partition value cannot be null.");
       }
 
-      boolean shouldAdd = startAddPartition(ms, part, partitionKeys, ifNotExists);
+      boolean shouldAdd = startAddPartition(ms, part, partitionKeys, ifNotExists, partitionsExist);
       if (!shouldAdd) {
         LOG.info("Not adding partition {} as it already exists", part);
         return false;
@@ -4154,7 +4159,7 @@ private int add_partitions_pspec_core(RawStore ms, String catName, String dbName
           // will be created if the list contains an invalid partition.
           final Partition part = partitionIterator.getCurrent();
           if (validatePartition(part, catName, tblName, dbName, partsToAdd, ms, ifNotExists,
-              partitionKeys)) {
+              partitionKeys, null)) {
             partitionsToAdd.add(part);
           }
           partitionIterator.next();
@@ -4192,16 +4197,81 @@ private int add_partitions_pspec_core(RawStore ms, String catName, String dbName
     private boolean startAddPartition(
         RawStore ms, Partition part, List<FieldSchema> partitionKeys, boolean ifNotExists)
         throws TException {
+      return startAddPartition(ms, part, partitionKeys, ifNotExists, null);
+    }
+
+    @VisibleForTesting
+    boolean startAddPartition(RawStore ms, Partition part, List<FieldSchema> partitionKeys,
+        boolean ifNotExists, Map<String, Boolean> partitionsExist) throws TException {
       MetaStoreServerUtils.validatePartitionNameCharacters(part.getValues(),
           partitionValidationPattern);
-      boolean doesExist = ms.doesPartitionExist(part.getCatName(),
-          part.getDbName(), part.getTableName(), partitionKeys, part.getValues());
+      Boolean doesExist = null;
+      if (partitionsExist != null) {
+        doesExist = partitionsExist.get(Warehouse.makePartName(partitionKeys, part.getValues()));
+      }
+      if (doesExist == null) {
+        doesExist = ms.doesPartitionExist(part.getCatName(),
+            part.getDbName(), part.getTableName(), partitionKeys, part.getValues());
+      }
       if (doesExist && !ifNotExists) {
         throw new AlreadyExistsException("Partition already exists: " + part);
       }
       return !doesExist;
     }
 
+    /**
+     * Finds out which of the given partitions exist with one query per batch of partitions,
+     * rather than one query per partition.
+     * A name matched by the lookup exists. A name that is not matched does not, unless the
+     * lookup also returned partitions whose names differ from the requested ones (e.g. in case)
+     * because of the collation of the backing database; those are left out of the result, so
+     * that they are checked one by one.
+     * @return whether each partition exists, by partition name; partitions missing from the
+     *         result are not known
+     */
+    @VisibleForTesting
+    Map<String, Boolean> lookupPartitionsExist(RawStore ms, String catName, String dbName,
+        String tblName, List<FieldSchema> partitionKeys, List<Partition> parts) throws MetaException {
+      Map<String, Boolean> partitionsExist = new HashMap<>();
+      if (parts.size() < 2) {
+        return partitionsExist;
+      }
+      List<String> partNames = new ArrayList<>(parts.size());
+      for (Partition part : parts) {
+        // Invalid partitions are rejected by validatePartition
+        if (part.getValues() != null && !part.getValues().isEmpty()
+            && !part.getValues().contains(null) && part.getValues().size() == partitionKeys.size()) {
+          partNames.add(Warehouse.makePartName(partitionKeys, part.getValues()));
+        }
+      }
+      int batchSize = MetastoreConf.getIntVar(conf, ConfVars.BATCH_RETRIEVE_MAX);
+      for (List<String> batch : Lists.partition(partNames, Math.max(batchSize, 1))) {
+        List<Partition> existing;
+        try {
+          existing = ms.getPartitionsByNames(catName, dbName, tblName, batch);
+        } catch (NoSuchObjectException e) {
+          existing = Collections.emptyList();
+        }
+        Set<String> existingNames = new HashSet<>();
+        for (Partition part : existing) {
+          existingNames.add(Warehouse.makePartName(partitionKeys, part.getValues()));
+        }
+        Set<String> requestedNames = new HashSet<>(batch);
+        Set<String> lowerCaseNames = new HashSet<>();
+        for (String partName : requestedNames) {
+          lowerCaseNames.add(partName.toLowerCase());
+        }
+        if (!requestedNames.containsAll(existingNames)
+            || lowerCaseNames.size() != requestedNames.size()) {
+          continue;
+        }
+        for (String partName : requestedNames) {
+          partitionsExist.put(partName, existingNames.contains(partName));
+        }
+      }
+      return partitionsExist;
+    }
+
     /**
      * Handles the location for a partition being created.
      * @param tbl Table.
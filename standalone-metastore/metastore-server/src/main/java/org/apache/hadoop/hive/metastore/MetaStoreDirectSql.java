@@ -69,6 +69,8 @@
 import org.apache.hadoop.hive.metastore.api.SkewedInfo;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.columnstats.aggr.ColumnStatsAggregator;
+import org.apache.hadoop.hive.metastore.columnstats.aggr.ColumnStatsAggregatorFactory;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
 import org.apache.hadoop.hive.metastore.model.MConstraint;
@@ -136,6 +138,7 @@ class MetaStoreDirectSql {
   private final boolean isAggregateStatsCacheEnabled;
   private final ImmutableMap<String, String> fieldnameToTableName;
   private AggregateStatsCache aggrStatsCache;
+  private PartitionColStatsRollups statsRollups;
 
   /**
    * This method returns a comma separated string consisting of String values of a given list.
@@ -215,6 +218,9 @@ public MetaStoreDirectSql(PersistenceManager pm, Configuration conf, String sche
     if (isAggregateStatsCacheEnabled) {
       aggrStatsCache = AggregateStatsCache.getInstance(conf);
     }
+    if (MetastoreConf.getBoolVar(conf, ConfVars.AGGREGATE_STATS_ROLLUP_ENABLED)) {
+      statsRollups = PartitionColStatsRollups.getInstance(conf);
+    }
 
     // now use the tableanames to create the mapping
     // note that some of the optional single-valued fields are not present
@@ -1465,6 +1471,13 @@ private List<ColumnStatisticsObj> columnStatisticsObjForPartitionsBatch(String c
   private List<ColumnStatisticsObj> aggrStatsUseJava(String catName, String dbName, String tableName,
       List<String> partNames, List<String> colNames, String engine, boolean areAllPartsFound,
       boolean useDensityFunctionForNDVEstimation, double ndvTuner) throws MetaException {
+    if (statsRollups != null && areAllPartsFound) {
+      List<ColumnStatisticsObj> result = aggrStatsUseRollups(catName, dbName, tableName, partNames,
+          colNames, engine, useDensityFunctionForNDVEstimation, ndvTuner);
+      if (result != null) {
+        return result;
+      }
+    }
     // 1. get all the stats for colNames in partNames;
     List<ColumnStatistics> partStats =
         getPartitionStats(catName, dbName, tableName, partNames, colNames, engine, true);
@@ -1473,6 +1486,97 @@ private List<ColumnStatisticsObj> aggrStatsUseJava(String catName, String dbName
         areAllPartsFound, useDensityFunctionForNDVEstimation, ndvTuner);
   }
 
+  /**
+   * Aggregates the stats using the roll-ups of the groups of partitions fully covered by partNames,
+   * and the stats of the partitions of the other groups, which are rolled up for the next calls.
+   * @return The aggregated stats, or null if they can't be computed from the roll-ups.
+   */
+  private List<ColumnStatisticsObj> aggrStatsUseRollups(String catName, String dbName,
+      String tableName, List<String> partNames, List<String> colNames, String engine,
+      boolean useDensityFunctionForNDVEstimation, double ndvTuner) throws MetaException {
+    long generation = statsRollups.getGeneration();
+    Map<String, List<String>> groups = new HashMap<>();
+    for (String partName : partNames) {
+      groups.computeIfAbsent(PartitionColStatsRollups.getGroupName(partName),
+          k -> new ArrayList<>()).add(partName);
+    }
+    // Roll-ups of the groups which are covered for all the columns.
+    Map<String, List<ColStatsObjWithSourceInfo>> colStats = new HashMap<>();
+    List<String> partsToRead = new ArrayList<>();
+    for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+      List<ColumnStatisticsObj> groupRollups = new ArrayList<>();
+      for (String colName : colNames) {
+        ColumnStatisticsObj rollup = statsRollups.get(catName, dbName, tableName, engine, colName,
+            group.getKey(), group.getValue());
+        if (rollup == null) {
+          break;
+        }
+        groupRollups.add(rollup);
+      }
+      if (groupRollups.size() == colNames.size()) {
+        for (ColumnStatisticsObj rollup : groupRollups) {
+          colStats.computeIfAbsent(rollup.getColName(), k -> new ArrayList<>()).add(
+              new ColStatsObjWithSourceInfo(rollup, catName, dbName, tableName, group.getKey()));
+        }
+      } else {
+        partsToRead.addAll(group.getValue());
+      }
+    }
+    boolean useRollups = !colStats.isEmpty();
+    if (useRollups) {
+      LOG.debug("Using stats roll-ups for {} of {} partitions of {}.{}.{}",
+          partNames.size() - partsToRead.size(), partNames.size(), catName, dbName, tableName);
+    }
+
+    List<ColumnStatistics> partStats =
+        getPartitionStats(catName, dbName, tableName, partsToRead, colNames, engine, true);
+    Map<String, Map<String, List<ColumnStatisticsObj>>> groupColStats = new HashMap<>();
+    for (ColumnStatistics css : partStats) {
+      String partName = css.getStatsDesc().getPartName();
+      String groupName = PartitionColStatsRollups.getGroupName(partName);
+      for (ColumnStatisticsObj obj : css.getStatsObj()) {
+        colStats.computeIfAbsent(obj.getColName(), k -> new ArrayList<>()).add(
+            new ColStatsObjWithSourceInfo(obj, catName, dbName, tableName, partName));
+        groupColStats.computeIfAbsent(groupName, k -> new HashMap<>())
+            .computeIfAbsent(obj.getColName(), k -> new ArrayList<>()).add(obj);
+      }
+    }
+    for (Map.Entry<String, Map<String, List<ColumnStatisticsObj>>> group : groupColStats.entrySet()) {
+      List<String> groupPartNames = groups.get(group.getKey());
+      for (List<ColumnStatisticsObj> stats : group.getValue().values()) {
+        if (stats.size() > 1 && stats.size() == groupPartNames.size()) {
+          ColumnStatisticsObj rollup = PartitionColStatsRollups.rollUp(stats);
+          if (rollup != null) {
+            statsRollups.put(generation, catName, dbName, tableName, engine, group.getKey(),
+                groupPartNames, rollup);
+          }
+        }
+      }
+    }
+
+    if (!useRollups) {
+      return MetaStoreServerUtils.aggrPartitionStats(partStats, catName, dbName, tableName,
+          partNames, colNames, true, useDensityFunctionForNDVEstimation, ndvTuner);
+    }
+    List<ColumnStatisticsObj> result = new ArrayList<>();
+    for (List<ColStatsObjWithSourceInfo> stats : colStats.values()) {
+      List<ColumnStatisticsObj> objs = new ArrayList<>();
+      List<String> sourceNames = new ArrayList<>();
+      for (ColStatsObjWithSourceInfo csp : stats) {
+        objs.add(csp.getColStatsObj());
+        sourceNames.add(csp.getPartName());
+      }
+      // Without bit vectors the NDVs are estimated per partition, roll-ups would change the result.
+      if (!PartitionColStatsRollups.areMergeable(objs)) {
+        return null;
+      }
+      ColumnStatsAggregator aggregator = ColumnStatsAggregatorFactory.getColumnStatsAggregator(
+          objs.get(0).getStatsData().getSetField(), useDensityFunctionForNDVEstimation, ndvTuner);
+      result.add(aggregator.aggregate(stats, sourceNames, true));
+    }
+    return result;
+  }
+
   private List<ColumnStatisticsObj> aggrStatsUseDB(String catName, String dbName,
       String tableName, List<String> partNames, List<String> colNames, String engine,
       boolean areAllPartsFound, boolean useDensityFunctionForNDVEstimation, double ndvTuner) throws MetaException {
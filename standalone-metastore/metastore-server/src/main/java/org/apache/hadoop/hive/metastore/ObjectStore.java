@@ -160,6 +160,8 @@ private enum TXN_STATUS {
   private volatile int openTrasactionCalls = 0;
   private Transaction currentTransaction = null;
   private TXN_STATUS transactionStatus = TXN_STATUS.NO_STATE;
+  // Tables whose stats roll-ups are to be dropped once the outermost transaction ends
+  private final Set<TableName> pendingRollupInvalidations = new HashSet<>();
   private Pattern partitionValidationPattern;
   private Counter directSqlErrors;
   private boolean areTxnStatsSupported = false;
@@ -247,7 +249,7 @@ private void initialize() {
     LOG.debug("ObjectStore, initialize called");
     // if this method fails, PersistenceManagerProvider will retry for the configured number of times
     // before giving up
-    pm = PersistenceManagerProvider.getPersistenceManager();
+    pm = createPersistenceManager();
     LOG.info("RawStore: {}, with PersistenceManager: {}" +
         " created in the thread with id: {}", this, pm, Thread.currentThread().getId());
     try {
@@ -269,6 +271,13 @@ private void initialize() {
     }
   }
 
+  /**
+   * @return The PersistenceManager this store runs all its queries with.
+   */
+  protected PersistenceManager createPersistenceManager() {
+    return PersistenceManagerProvider.getPersistenceManager();
+  }
+
   private DatabaseProduct determineDatabaseProduct() {
     try {
       return DatabaseProduct.determineDatabaseProduct(getProductName(pm));
@@ -470,6 +479,7 @@ public boolean commitTransaction() {
     if ((openTrasactionCalls == 0) && currentTransaction.isActive()) {
       transactionStatus = TXN_STATUS.COMMITED;
       currentTransaction.commit();
+      flushRollupInvalidations();
     }
     return true;
   }
@@ -507,9 +517,31 @@ public void rollbackTransaction() {
       // being rolled back they are no longer relevant, and this prevents them
       // from reattaching in future transactions
       pm.evictAll();
+      // Roll-ups computed within the transaction may include the stats rolled back
+      flushRollupInvalidations();
     }
   }
 
+  /**
+   * Drops the stats roll-ups of a table, see {@link PartitionColStatsRollups}. Within a
+   * transaction, this is deferred until the outermost one ends: until then the stats of the table
+   * may still be read, and rolled up again, as they were before the transaction.
+   */
+  private void invalidateStatsRollups(String catName, String dbName, String tblName) {
+    if (openTrasactionCalls > 0 && isActiveTransaction()) {
+      pendingRollupInvalidations.add(new TableName(catName, dbName, tblName));
+    } else {
+      PartitionColStatsRollups.invalidate(catName, dbName, tblName);
+    }
+  }
+
+  private void flushRollupInvalidations() {
+    for (TableName table : pendingRollupInvalidations) {
+      PartitionColStatsRollups.invalidate(table.getCat(), table.getDb(), table.getTable());
+    }
+    pendingRollupInvalidations.clear();
+  }
+
   @Override
   public void createCatalog(Catalog cat) throws MetaException {
     LOG.debug("Creating catalog " + cat.getName());
@@ -1126,6 +1158,7 @@ public boolean dropTable(String catName, String dbName, String tableName)
         pm.deletePersistentAll(tbl);
       }
       success = commitTransaction();
+      invalidateStatsRollups(catName, dbName, tableName);
     } finally {
       if (!success) {
         rollbackTransaction();
@@ -2080,12 +2113,13 @@ public boolean addPartitions(String catName, String dbName, String tblName, List
         tabColumnGrants = this.listTableAllColumnGrants(catName, dbName, tblName);
       }
       List<Object> toPersist = new ArrayList<>();
+      List<FieldSchema> tableCols = getTableCols(table);
       for (Partition part : parts) {
         if (!part.getTableName().equals(tblName) || !part.getDbName().equals(dbName)) {
           throw new MetaException("Partition does not belong to target table "
               + dbName + "." + tblName + ": " + part);
         }
-        MPartition mpart = convertToMPart(part, table, true);
+        MPartition mpart = convertToMPart(part, table, tableCols);
 
         toPersist.add(mpart);
         int now = (int)(System.currentTimeMillis()/1000);
@@ -2398,6 +2432,15 @@ private MPartition getMPartition(String catName, String dbName, String tableName
    */
   private MPartition convertToMPart(Partition part, MTable mt, boolean useTableCD)
       throws InvalidObjectException, MetaException {
+    return convertToMPart(part, mt, useTableCD ? getTableCols(mt) : null);
+  }
+
+  /**
+   * @param tableCols The columns of the table, as returned by {@link #getTableCols(MTable)};
+   *                  null to never use the column descriptor of the table.
+   */
+  private MPartition convertToMPart(Partition part, MTable mt, List<FieldSchema> tableCols)
+      throws InvalidObjectException, MetaException {
     // NOTE: we don't set writeId in this method. Write ID is only set after validating the
     //       existing write ID against the caller's valid list.
     if (part == null) {
@@ -2412,12 +2455,7 @@ private MPartition convertToMPart(Partition part, MTable mt, boolean useTableCD)
     // use the parent table's, so we do not create a duplicate column descriptor,
     // thereby saving space
     MStorageDescriptor msd;
-    if (useTableCD &&
-        mt.getSd() != null && mt.getSd().getCD() != null &&
-        mt.getSd().getCD().getCols() != null &&
-        part.getSd() != null &&
-        convertToFieldSchemas(mt.getSd().getCD().getCols()).
-        equals(part.getSd().getCols())) {
+    if (tableCols != null && part.getSd() != null && tableCols.equals(part.getSd().getCols())) {
       msd = convertToMStorageDescriptor(part.getSd(), mt.getSd().getCD());
     } else {
       msd = convertToMStorageDescriptor(part.getSd());
@@ -2429,6 +2467,17 @@ private MPartition convertToMPart(Partition part, MTable mt, boolean useTableCD)
         msd, part.getParameters());
   }
 
+  /**
+   * @return The columns of the column descriptor of the table, or null if it has none.
+   */
+  private List<FieldSchema> getTableCols(MTable mt) {
+    if (mt == null || mt.getSd() == null || mt.getSd().getCD() == null
+        || mt.getSd().getCD().getCols() == null) {
+      return null;
+    }
+    return convertToFieldSchemas(mt.getSd().getCD().getCols());
+  }
+
   private Partition convertToPart(MPartition mpart) throws MetaException {
     if (mpart == null) {
       return null;
@@ -2471,6 +2520,7 @@ public boolean dropPartition(String catName, String dbName, String tableName,
       MPartition part = getMPartition(catName, dbName, tableName, part_vals);
       dropPartitionCommon(part);
       success = commitTransaction();
+      invalidateStatsRollups(catName, dbName, tableName);
     } finally {
       if (!success) {
         rollbackTransaction();
@@ -2504,6 +2554,7 @@ protected List<Void> getJdoResult(GetHelper<List<Void>> ctx) throws MetaExceptio
         return Collections.emptyList();
       }
     }.run(false);
+    invalidateStatsRollups(catName, dbName, tblName);
   }
 
   private void dropPartitionsViaJdo(String catName, String dbName, String tblName,
@@ -4201,6 +4252,8 @@ public Table alterTable(String catName, String dbname, String name, Table newTab
 
       // commit the changes
       success = commitTransaction();
+      // The roll-ups are keyed by the old name if the table was renamed.
+      invalidateStatsRollups(catName, dbname, name);
     } finally {
       if (!success) {
         rollbackTransaction();
@@ -4345,6 +4398,7 @@ public Partition alterPartition(String catName, String dbname, String name, List
       removeUnusedColumnDescriptor(oldCd.t);
       // commit the changes
       success = commitTransaction();
+      invalidateStatsRollups(catName, dbname, name);
     } catch (Throwable exception) {
       LOG.error("alterPartition failed", exception);
       e = exception;
@@ -4393,6 +4447,7 @@ public List<Partition> alterPartitions(String catName, String dbname, String nam
       }
       // commit the changes
       success = commitTransaction();
+      invalidateStatsRollups(catName, dbname, name);
     } catch (Exception exception) {
       e = exception;
       LOG.error("Alter failed", e);
@@ -8563,6 +8618,7 @@ public Map<String, String> updatePartitionColumnStatistics(ColumnStatistics colS
 
       mPartition.setParameters(newParams);
       committed = commitTransaction();
+      invalidateStatsRollups(catName, statsDesc.getDbName(), statsDesc.getTableName());
       // TODO: what is the "return committed;" about? would it ever return false without throwing?
       return committed ? newParams : null;
     } finally {
@@ -9145,6 +9201,7 @@ public boolean deletePartitionColumnStatistics(String catName, String dbName, St
         }
       }
       ret = commitTransaction();
+      invalidateStatsRollups(catName, dbName, tableName);
     } catch (NoSuchObjectException e) {
       rollbackTransaction();
       throw e;
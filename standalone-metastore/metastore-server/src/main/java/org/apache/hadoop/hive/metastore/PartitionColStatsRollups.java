@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.ndv.NumDistinctValueEstimator;
+import org.apache.hadoop.hive.common.ndv.NumDistinctValueEstimatorFactory;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.columnstats.cache.DateColumnStatsDataInspector;
+import org.apache.hadoop.hive.metastore.columnstats.cache.DecimalColumnStatsDataInspector;
+import org.apache.hadoop.hive.metastore.columnstats.cache.DoubleColumnStatsDataInspector;
+import org.apache.hadoop.hive.metastore.columnstats.cache.LongColumnStatsDataInspector;
+import org.apache.hadoop.hive.metastore.columnstats.cache.StringColumnStatsDataInspector;
+import org.apache.hadoop.hive.metastore.columnstats.merge.ColumnStatsMerger;
+import org.apache.hadoop.hive.metastore.columnstats.merge.ColumnStatsMergerFactory;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Column stats rolled up per group of partitions, used by
+ * {@link MetaStoreDirectSql#aggrColStatsForPartitions} when aggregating stats with bit vectors.
+ * A group is made of the partitions sharing all but the last partition key value, e.g. all the
+ * days of a month for a table partitioned by (month, day), or all the partitions of a table with
+ * a single partition key.
+ *
+ * A roll-up is the merge of the stats of exactly the partitions it was computed from, and is only
+ * reused for requests naming the same partitions of the group. Roll-ups are only made of stats
+ * with mergeable bit vectors: the stats aggregators then merge the bit vectors, add up the null
+ * counts and take the extremes of the value ranges, so the result is the same whether the stats
+ * of a group are merged beforehand or not.
+ *
+ * The roll-ups of a table are invalidated once the transaction changing its stats has committed.
+ * A roll-up computed from stats read before an invalidation is not stored, see
+ * {@link #getGeneration()}.
+ */
+public class PartitionColStatsRollups {
+  private static PartitionColStatsRollups self = null;
+
+  private final Cache<Key, Rollup> rollups;
+  // Bumped by every invalidation.
+  private final AtomicLong generation = new AtomicLong();
+
+  private static final class Key {
+    private final String catName;
+    private final String dbName;
+    private final String tblName;
+    private final String engine;
+    private final String colName;
+    private final String groupName;
+
+    private Key(String catName, String dbName, String tblName, String engine, String colName,
+        String groupName) {
+      this.catName = catName;
+      this.dbName = dbName;
+      this.tblName = tblName;
+      this.engine = engine;
+      this.colName = colName;
+      this.groupName = groupName;
+    }
+
+    private boolean isForTable(String catName, String dbName, String tblName) {
+      return this.catName.equalsIgnoreCase(catName) && this.dbName.equalsIgnoreCase(dbName)
+          && this.tblName.equalsIgnoreCase(tblName);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return catName.equals(other.catName) && dbName.equals(other.dbName)
+          && tblName.equals(other.tblName) && Objects.equals(engine, other.engine)
+          && colName.equals(other.colName) && groupName.equals(other.groupName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(catName, dbName, tblName, engine, colName, groupName);
+    }
+  }
+
+  private static final class Rollup {
+    private final Set<String> partNames;
+    private final ColumnStatisticsObj stats;
+
+    private Rollup(Set<String> partNames, ColumnStatisticsObj stats) {
+      this.partNames = partNames;
+      this.stats = stats;
+    }
+  }
+
+  @VisibleForTesting
+  PartitionColStatsRollups(long maxSize, long timeToLiveMs) {
+    rollups = CacheBuilder.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(timeToLiveMs, TimeUnit.MILLISECONDS).build();
+  }
+
+  public static synchronized PartitionColStatsRollups getInstance(Configuration conf) {
+    if (self == null) {
+      self = new PartitionColStatsRollups(
+          MetastoreConf.getIntVar(conf, ConfVars.AGGREGATE_STATS_ROLLUP_SIZE),
+          MetastoreConf.getTimeVar(conf, ConfVars.AGGREGATE_STATS_ROLLUP_TTL, TimeUnit.MILLISECONDS));
+    }
+    return self;
+  }
+
+  /**
+   * Drops the roll-ups of a table; to be called when the column stats of its partitions change.
+   */
+  public static void invalidate(String catName, String dbName, String tblName) {
+    PartitionColStatsRollups instance;
+    synchronized (PartitionColStatsRollups.class) {
+      instance = self;
+    }
+    if (instance != null) {
+      instance.invalidateTable(catName, dbName, tblName);
+    }
+  }
+
+  @VisibleForTesting
+  void invalidateTable(String catName, String dbName, String tblName) {
+    generation.incrementAndGet();
+    rollups.asMap().keySet().removeIf(key -> key.isForTable(catName, dbName, tblName));
+  }
+
+  /**
+   * @return The generation to pass to {@link #put}, to be read before reading the stats the
+   *         roll-up is computed from.
+   */
+  long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * @return The name of the group of the partition, i.e. its parent path.
+   */
+  static String getGroupName(String partName) {
+    int index = partName.lastIndexOf('/');
+    return index < 0 ? "" : partName.substring(0, index);
+  }
+
+  /**
+   * @param partNames The partitions of the group to aggregate the stats of.
+   * @return A copy of the roll-up of the group, or null if there is none for these partitions.
+   */
+  ColumnStatisticsObj get(String catName, String dbName, String tblName, String engine,
+      String colName, String groupName, Collection<String> partNames) {
+    Rollup rollup = rollups.getIfPresent(
+        new Key(catName, dbName, tblName, engine, colName, groupName));
+    if (rollup == null || rollup.partNames.size() != partNames.size()
+        || !rollup.partNames.containsAll(partNames)) {
+      return null;
+    }
+    return new ColumnStatisticsObj(rollup.stats);
+  }
+
+  /**
+   * Stores a roll-up, unless some stats may have changed since they were read.
+   * @param generation The generation read before reading the stats, see {@link #getGeneration()}.
+   * @param partNames The partitions the roll-up was computed from.
+   * @param stats The roll-up, see {@link #rollUp(List)}.
+   */
+  void put(long generation, String catName, String dbName, String tblName, String engine,
+      String groupName, Collection<String> partNames, ColumnStatisticsObj stats) {
+    if (generation != this.generation.get()) {
+      return;
+    }
+    Key key = new Key(catName, dbName, tblName, engine, stats.getColName(), groupName);
+    rollups.put(key, new Rollup(new HashSet<>(partNames), stats));
+    // An invalidation which ran concurrently may have missed it.
+    if (generation != this.generation.get()) {
+      rollups.invalidate(key);
+    }
+  }
+
+  /**
+   * Merges the stats of the partitions of a group, without modifying them.
+   * @param stats Stats of a single column.
+   * @return The roll-up, or null if the stats don't have mergeable bit vectors.
+   */
+  static ColumnStatisticsObj rollUp(List<ColumnStatisticsObj> stats) {
+    if (!areMergeable(stats)) {
+      return null;
+    }
+    ColumnStatisticsObj rollup = new ColumnStatisticsObj(stats.get(0));
+    ColumnStatsMerger merger = ColumnStatsMergerFactory.getColumnStatsMerger(rollup, rollup);
+    for (int i = 1; i < stats.size(); ++i) {
+      merger.merge(rollup, stats.get(i));
+    }
+    serializeBitVectors(rollup);
+    return rollup;
+  }
+
+  /**
+   * The mergers leave the merged estimator in a stats inspector; serializes it back into the bit
+   * vectors, since the inspectors can only be copied that way.
+   */
+  private static void serializeBitVectors(ColumnStatisticsObj cso) {
+    ColumnStatisticsData data = cso.getStatsData();
+    switch (data.getSetField()) {
+    case LONG_STATS:
+      if (data.getLongStats() instanceof LongColumnStatsDataInspector) {
+        LongColumnStatsDataInspector inspector = (LongColumnStatsDataInspector) data.getLongStats();
+        NumDistinctValueEstimator estimator = inspector.getNdvEstimator();
+        if (estimator != null) {
+          inspector.setBitVectors(estimator.serialize());
+        }
+      }
+      break;
+    case DOUBLE_STATS:
+      if (data.getDoubleStats() instanceof DoubleColumnStatsDataInspector) {
+        DoubleColumnStatsDataInspector inspector =
+            (DoubleColumnStatsDataInspector) data.getDoubleStats();
+        NumDistinctValueEstimator estimator = inspector.getNdvEstimator();
+        if (estimator != null) {
+          inspector.setBitVectors(estimator.serialize());
+        }
+      }
+      break;
+    case DECIMAL_STATS:
+      if (data.getDecimalStats() instanceof DecimalColumnStatsDataInspector) {
+        DecimalColumnStatsDataInspector inspector =
+            (DecimalColumnStatsDataInspector) data.getDecimalStats();
+        NumDistinctValueEstimator estimator = inspector.getNdvEstimator();
+        if (estimator != null) {
+          inspector.setBitVectors(estimator.serialize());
+        }
+      }
+      break;
+    case DATE_STATS:
+      if (data.getDateStats() instanceof DateColumnStatsDataInspector) {
+        DateColumnStatsDataInspector inspector = (DateColumnStatsDataInspector) data.getDateStats();
+        NumDistinctValueEstimator estimator = inspector.getNdvEstimator();
+        if (estimator != null) {
+          inspector.setBitVectors(estimator.serialize());
+        }
+      }
+      break;
+    case STRING_STATS:
+      if (data.getStringStats() instanceof StringColumnStatsDataInspector) {
+        StringColumnStatsDataInspector inspector =
+            (StringColumnStatsDataInspector) data.getStringStats();
+        NumDistinctValueEstimator estimator = inspector.getNdvEstimator();
+        if (estimator != null) {
+          inspector.setBitVectors(estimator.serialize());
+        }
+      }
+      break;
+    default:
+      break;
+    }
+  }
+
+  /**
+   * @return true if all the stats are of the same type, and have bit vectors which can be merged.
+   */
+  static boolean areMergeable(Collection<ColumnStatisticsObj> stats) {
+    ColumnStatisticsData._Fields type = null;
+    NumDistinctValueEstimator first = null;
+    for (ColumnStatisticsObj cso : stats) {
+      byte[] bitVectors = getBitVectors(cso);
+      if (bitVectors == null || bitVectors.length == 0
+          || (type != null && type != cso.getStatsData().getSetField())) {
+        return false;
+      }
+      type = cso.getStatsData().getSetField();
+      NumDistinctValueEstimator estimator =
+          NumDistinctValueEstimatorFactory.getNumDistinctValueEstimator(bitVectors);
+      if (first == null) {
+        first = estimator;
+      } else if (!first.canMerge(estimator)) {
+        return false;
+      }
+    }
+    return first != null;
+  }
+
+  private static byte[] getBitVectors(ColumnStatisticsObj cso) {
+    ColumnStatisticsData data = cso.getStatsData();
+    switch (data.getSetField()) {
+    case LONG_STATS:
+      return data.getLongStats().getBitVectors();
+    case DOUBLE_STATS:
+      return data.getDoubleStats().getBitVectors();
+    case DECIMAL_STATS:
+      return data.getDecimalStats().getBitVectors();
+    case DATE_STATS:
+      return data.getDateStats().getBitVectors();
+    case STRING_STATS:
+      return data.getStringStats().getBitVectors();
+    default:
+      // Booleans and binaries have no bit vectors.
+      return null;
+    }
+  }
+}
@@ -79,6 +79,8 @@
  */
 public class PersistenceManagerProvider {
   private static PersistenceManagerFactory pmf;
+  // factory of the read replica, if one is configured
+  private static PersistenceManagerFactory replicaPmf;
   private static Properties prop;
   private static final ReentrantReadWriteLock pmfLock = new ReentrantReadWriteLock();
   private static final Lock pmfReadLock = pmfLock.readLock();
@@ -155,6 +157,7 @@ public static void updatePmfProperties(Configuration conf) {
     // which can lead to readLock not being acquired at the end of the inner try-finally
     // block below
     boolean readLockAcquired = true;
+    boolean isReinitialized = false;
     try {
       // if pmf properties change, need to update, release read lock and take write lock
       if (prop == null || pmf == null || !propsFromConf.equals(prop)) {
@@ -201,6 +204,12 @@ public static void updatePmfProperties(Configuration conf) {
               }
               pmf = null;
             }
+            if (replicaPmf != null) {
+              if (!forTwoMetastoreTesting) {
+                replicaPmf.close();
+              }
+              replicaPmf = null;
+            }
             // update the pmf properties object then initialize pmf using them
             prop = propsFromConf;
             retryLimit = MetastoreConf.getIntVar(conf, ConfVars.HMS_HANDLER_ATTEMPTS);
@@ -208,6 +217,7 @@ public static void updatePmfProperties(Configuration conf) {
                 .getTimeVar(conf, ConfVars.HMS_HANDLER_INTERVAL, TimeUnit.MILLISECONDS);
             // init PMF with retry logic
             retry(() -> {initPMF(conf); return null;});
+            isReinitialized = true;
           }
           // downgrade by acquiring read lock before releasing write lock
           pmfReadLock.lock();
@@ -221,30 +231,15 @@ public static void updatePmfProperties(Configuration conf) {
         pmfReadLock.unlock();
       }
     }
+    if (isReinitialized) {
+      // Outside of the pmf locks, which ReadReplicaRouter.get takes under its own lock.
+      ReadReplicaRouter.reset();
+    }
   }
 
   private static void initPMF(Configuration conf) {
-    DataSourceProvider dsp = DataSourceProviderFactory.tryGetDataSourceProviderOrNull(conf);
-
-    if (dsp == null) {
-      pmf = JDOHelper.getPersistenceManagerFactory(prop);
-    } else {
-      try {
-        DataSource ds = dsp.create(conf);
-        Map<Object, Object> dsProperties = new HashMap<>();
-        //Any preexisting datanucleus property should be passed along
-        dsProperties.putAll(prop);
-        dsProperties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY, ds);
-        dsProperties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY2, ds);
-        dsProperties.put(ConfVars.MANAGER_FACTORY_CLASS.getVarname(),
-            "org.datanucleus.api.jdo.JDOPersistenceManagerFactory");
-        pmf = JDOHelper.getPersistenceManagerFactory(dsProperties);
-      } catch (SQLException e) {
-        LOG.warn("Could not create PersistenceManagerFactory using "
-            + "connection pool properties, will fall back", e);
-        pmf = JDOHelper.getPersistenceManagerFactory(prop);
-      }
-    }
+    pmf = createPMF(conf, prop);
+    replicaPmf = createReplicaPMF(conf);
     DataStoreCache dsc = pmf.getDataStoreCache();
     if (dsc != null) {
       String objTypes = MetastoreConf.getVar(conf, ConfVars.CACHE_PINOBJTYPES);
@@ -269,6 +264,50 @@ private static void initPMF(Configuration conf) {
     }
   }
 
+  private static PersistenceManagerFactory createPMF(Configuration conf, Properties props) {
+    DataSourceProvider dsp = DataSourceProviderFactory.tryGetDataSourceProviderOrNull(conf);
+
+    if (dsp == null) {
+      return JDOHelper.getPersistenceManagerFactory(props);
+    }
+    try {
+      DataSource ds = dsp.create(conf);
+      Map<Object, Object> dsProperties = new HashMap<>();
+      //Any preexisting datanucleus property should be passed along
+      dsProperties.putAll(props);
+      dsProperties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY, ds);
+      dsProperties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY2, ds);
+      dsProperties.put(ConfVars.MANAGER_FACTORY_CLASS.getVarname(),
+          "org.datanucleus.api.jdo.JDOPersistenceManagerFactory");
+      return JDOHelper.getPersistenceManagerFactory(dsProperties);
+    } catch (SQLException e) {
+      LOG.warn("Could not create PersistenceManagerFactory using "
+          + "connection pool properties, will fall back", e);
+      return JDOHelper.getPersistenceManagerFactory(props);
+    }
+  }
+
+  /**
+   * Creates the PersistenceManagerFactory of the read replica, configured in the same way as the
+   * primary one except for the connection url.
+   *
+   * @return the factory, or null if no read replica is configured
+   */
+  private static PersistenceManagerFactory createReplicaPMF(Configuration conf) {
+    String replicaUrl = MetastoreConf.getVar(conf, ConfVars.READ_REPLICA_CONNECT_URL);
+    if (org.apache.commons.lang.StringUtils.isEmpty(replicaUrl)) {
+      return null;
+    }
+    // The datasource providers read the connection url from the configuration.
+    Configuration replicaConf = new Configuration(conf);
+    MetastoreConf.setVar(replicaConf, ConfVars.CONNECT_URL_KEY, replicaUrl);
+    Properties replicaProps = getDataSourceProps(replicaConf);
+    replicaProps.setProperty("datanucleus.readOnlyDatastore", "true");
+    LOG.info("Using read replica {} for read-only calls",
+        MetaStoreServerUtils.anonymizeConnectionURL(replicaUrl));
+    return createPMF(replicaConf, replicaProps);
+  }
+
   /**
    * Removed cached classloaders from DataNucleus
    * DataNucleus caches classloaders in NucleusContext.
@@ -411,6 +450,39 @@ public static PersistenceManager getPersistenceManager() {
     }
   }
 
+  /**
+   * Creates a PersistenceManager instance for the read replica PersistenceManagerFactory, see
+   * {@link ConfVars#READ_REPLICA_CONNECT_URL}. Like {@link #getPersistenceManager()} this blocks
+   * while the factories are being (re-)initialized.
+   *
+   * @return PersistenceManager of the read replica, or null if no read replica is configured
+   */
+  public static PersistenceManager getReplicaPersistenceManager() {
+    pmfReadLock.lock();
+    try {
+      if (replicaPmf == null) {
+        return null;
+      }
+      return retry(replicaPmf::getPersistenceManager);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      pmfReadLock.unlock();
+    }
+  }
+
+  /**
+   * @return true if a read replica is configured and its PersistenceManagerFactory is initialized
+   */
+  public static boolean hasReadReplica() {
+    pmfReadLock.lock();
+    try {
+      return replicaPmf != null;
+    } finally {
+      pmfReadLock.unlock();
+    }
+  }
+
   /**
    * Properties specified in hive-default.xml override the properties specified
    * in jpox.properties.
@@ -45,6 +45,9 @@ public class RawStoreProxy implements InvocationHandler {
   private final Configuration hiveConf;
   private final Configuration conf; // thread local conf from HMS
   private final long socketTimeout;
+  // Non null if read-only calls may be served from the read replica.
+  private final ReadReplicaRouter replicaRouter;
+  private RawStore replica;
 
   protected RawStoreProxy(Configuration hiveConf, Configuration conf,
       Class<? extends RawStore> rawStoreClass, int id) throws MetaException {
@@ -57,6 +60,8 @@ protected RawStoreProxy(Configuration hiveConf, Configuration conf,
     init();
 
     this.base = ReflectionUtils.newInstance(rawStoreClass, conf);
+    // Other RawStores (e.g. CachedStore) have their own way of serving reads.
+    this.replicaRouter = rawStoreClass == ObjectStore.class ? ReadReplicaRouter.get(conf) : null;
   }
 
   public static RawStore getProxy(Configuration hiveConf, Configuration conf, String rawStoreClassName,
@@ -94,6 +99,9 @@ public Object invoke(Object proxy, Method method, Object[] args) throws Throwabl
       Deadline.registerIfNot(socketTimeout);
       boolean isTimerStarted = Deadline.startTimer(method.getName());
       try {
+        if (replicaRouter != null) {
+          return invokeRouted(method, args);
+        }
         return method.invoke(base, args);
       } finally {
         if (isTimerStarted) {
@@ -107,6 +115,31 @@ public Object invoke(Object proxy, Method method, Object[] args) throws Throwabl
     }
   }
 
+  private Object invokeRouted(Method method, Object[] args) throws Exception {
+    // Reads made within a transaction must see its changes, they always go to the primary.
+    if (ReadReplicaRouter.isReplicaRead(method) && !base.isActiveTransaction()) {
+      if (replica == null) {
+        replica = new ReadReplicaObjectStore();
+        ((ReadReplicaObjectStore) replica).setConf(conf);
+      }
+      if (replicaRouter.useReplica(base, replica)) {
+        return method.invoke(replica, args);
+      }
+      return method.invoke(base, args);
+    }
+    if ("shutdown".equals(method.getName()) && replica != null) {
+      replica.shutdown();
+      replica = null;
+    }
+    try {
+      return method.invoke(base, args);
+    } finally {
+      if (ReadReplicaRouter.isWrite(method) && !base.isActiveTransaction()) {
+        replicaRouter.writeCommitted();
+      }
+    }
+  }
+
   public Configuration getConf() {
     return conf;
   }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Decides which {@link RawStore} calls may be served from the read replica of the metastore
+ * database, see {@link ConfVars#READ_REPLICA_CONNECT_URL}.
+ *
+ * The staleness of the replica is tracked with notification event ids. The replica is only used
+ * while its last event id is not behind the one of the primary database, which is compared at
+ * most once per {@link ConfVars#READ_REPLICA_CHECK_INTERVAL}. Every write committed through this
+ * metastore instance forces the comparison to be redone before the replica is used again, so
+ * clients of this instance always read their own writes. Writes made through other metastore
+ * instances are seen after at most the check interval plus the replication lag.
+ *
+ * Some writes, such as grants and roles, emit no notification event, so the event ids can't tell
+ * whether the replica has them. Hence only the reads listed in {@link #REPLICA_READS} are served
+ * from the replica, all the other ones from the primary.
+ */
+class ReadReplicaRouter {
+  private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaRouter.class);
+
+  /**
+   * Read-only calls which may be served from the replica. Only the metadata whose writes emit a
+   * notification event qualifies, since the staleness of the replica is tracked with event ids.
+   * Any other read, including the ones added to {@link RawStore} later, goes to the primary.
+   */
+  @VisibleForTesting
+  static final Set<String> REPLICA_READS = ImmutableSet.of(
+      // Databases and tables.
+      "getDatabase", "getDatabases", "getAllDatabases", "getDatabaseCount",
+      "getTable", "getTables", "getAllTables", "getTableCount", "getTableMeta",
+      "getTableObjectsByName", "listTableNamesByFilter",
+      // Partitions.
+      "getPartition", "getPartitions", "getPartitionsByNames", "getPartitionsByFilter",
+      "getPartitionsByExpr", "getNumPartitionsByFilter", "getNumPartitionsByExpr",
+      "getPartitionCount", "getPartitionLocations", "getPartitionSpecsByFilterAndProjection",
+      "listPartitionNames", "listPartitionNamesPs", "listPartitionValues", "doesPartitionExist",
+      // Column statistics.
+      "getTableColumnStatistics", "getPartitionColumnStatistics", "get_aggr_stats_for",
+      "getPartitionColStatsForDatabase", "getAllTableNamesForStats", "getTableNamesWithStats",
+      "getPartitionColsWithStats",
+      // Functions and the constraints which are written with an event.
+      "getFunction", "getFunctions", "getAllFunctions",
+      "getPrimaryKeys", "getForeignKeys", "getUniqueConstraints", "getNotNullConstraints");
+
+  /** Calls which are neither reads nor commit anything. */
+  private static final Set<String> NON_WRITES = ImmutableSet.of(
+      "openTransaction", "rollbackTransaction", "shutdown", "setConf", "verifySchema");
+
+  private static boolean initialized;
+  private static ReadReplicaRouter instance;
+
+  private final long checkIntervalMs;
+  private final AtomicLong nextCheckMs = new AtomicLong();
+  // Bumped whenever a write is committed; guarded by this.
+  private long writeVersion;
+  private volatile boolean replicaCurrent;
+
+  @VisibleForTesting
+  ReadReplicaRouter(long checkIntervalMs) {
+    this.checkIntervalMs = checkIntervalMs;
+  }
+
+  /**
+   * Forgets the router, so that the next {@link #get(Configuration)} decides again whether to use
+   * the replica. Called when the persistence managers are re-initialized.
+   */
+  static synchronized void reset() {
+    initialized = false;
+    instance = null;
+  }
+
+  /**
+   * @return The router shared by all the RawStores of this metastore instance, or null if no read
+   *         replica is to be used.
+   */
+  static synchronized ReadReplicaRouter get(Configuration conf) {
+    if (!initialized) {
+      initialized = true;
+      if (PersistenceManagerProvider.hasReadReplica()) {
+        String listeners = MetastoreConf.getVar(conf, ConfVars.TRANSACTIONAL_EVENT_LISTENERS);
+        if (listeners.contains("DbNotificationListener")) {
+          instance = new ReadReplicaRouter(MetastoreConf.getTimeVar(conf,
+              ConfVars.READ_REPLICA_CHECK_INTERVAL, TimeUnit.MILLISECONDS));
+        } else {
+          LOG.warn("Not using the read replica, staleness can't be tracked without "
+              + "DbNotificationListener in {}", ConfVars.TRANSACTIONAL_EVENT_LISTENERS.getVarname());
+        }
+      }
+    }
+    return instance;
+  }
+
+  private static boolean isRead(String name) {
+    return name.startsWith("get") || name.startsWith("list") || name.startsWith("does")
+        || name.startsWith("is");
+  }
+
+  /**
+   * @return true if the call only reads metadata, and may be served from the replica.
+   */
+  static boolean isReplicaRead(Method method) {
+    String name = method.getName();
+    return REPLICA_READS.contains(name);
+  }
+
+  /**
+   * @return true if the call may change the primary database.
+   */
+  static boolean isWrite(Method method) {
+    String name = method.getName();
+    return !isRead(name) && !NON_WRITES.contains(name);
+  }
+
+  /**
+   * Called after a write has been committed to the primary database. The replica is not used
+   * until it is known to have caught up with it.
+   */
+  synchronized void writeCommitted() {
+    ++writeVersion;
+    replicaCurrent = false;
+    nextCheckMs.set(0);
+  }
+
+  /**
+   * @param primary RawStore of the primary database, without an active transaction.
+   * @param replica RawStore of the read replica.
+   * @return true if a read can be served from the replica.
+   */
+  boolean useReplica(RawStore primary, RawStore replica) {
+    long nowMs = System.currentTimeMillis();
+    long next = nextCheckMs.get();
+    if (nowMs >= next && nextCheckMs.compareAndSet(next, nowMs + checkIntervalMs)) {
+      check(primary, replica);
+    }
+    return replicaCurrent;
+  }
+
+  private void check(RawStore primary, RawStore replica) {
+    long version;
+    synchronized (this) {
+      version = writeVersion;
+    }
+    boolean current;
+    try {
+      long primaryEventId = primary.getCurrentNotificationEventId().getEventId();
+      long replicaEventId = replica.getCurrentNotificationEventId().getEventId();
+      current = replicaEventId >= primaryEventId;
+      if (!current) {
+        LOG.debug("Read replica is at event {}, behind the primary database at event {}",
+            replicaEventId, primaryEventId);
+      }
+    } catch (RuntimeException e) {
+      LOG.warn("Unable to compare the last event ids of the primary database and the replica", e);
+      current = false;
+    }
+    synchronized (this) {
+      // A write committed while checking may not be included in the event id read above.
+      if (version == writeVersion) {
+        replicaCurrent = current;
+      }
+    }
+  }
+}
@@ -73,6 +73,8 @@
 import org.apache.hadoop.hive.metastore.messaging.MessageDeserializer;
 import org.apache.hadoop.hive.metastore.partition.spec.PartitionSpecProxy;
 import org.apache.hadoop.hive.metastore.messaging.MessageFactory;
+import org.apache.hadoop.hive.metastore.metrics.Metrics;
+import org.apache.hadoop.hive.metastore.metrics.MetricsConstants;
 import org.apache.hadoop.hive.metastore.txn.TxnUtils;
 import org.apache.hadoop.hive.metastore.utils.FileUtils;
 import org.apache.hadoop.hive.metastore.utils.JavaUtils;
@@ -84,6 +86,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 
 import static org.apache.hadoop.hive.metastore.Warehouse.DEFAULT_CATALOG_NAME;
@@ -125,6 +130,8 @@ public class CachedStore implements RawStore, Configurable {
   private static SharedCache sharedCache = new SharedCache();
   private static boolean canUseEvents = false;
   private static long lastEventId;
+  // Wall clock time of the last completed prewarm or update of the shared cache.
+  private static volatile long lastCacheUpdateTimeMs = 0;
 
   private static final Logger LOG = LoggerFactory.getLogger(CachedStore.class.getName());
 
@@ -159,6 +166,7 @@ private static synchronized void triggerUpdateUsingEvent(RawStore rawStore) {
     long preEventId = lastEventId;
     try {
       lastEventId = updateUsingNotificationEvents(rawStore, lastEventId);
+      cacheUpdated(startTime);
     } catch (Exception e) {
       LOG.error(" cache update failed for start event id " + lastEventId + " with error ", e);
       throw new RuntimeException(e.getMessage());
@@ -206,10 +214,33 @@ private void initSharedCache(Configuration conf) {
       if (!sharedCacheInited) {
         sharedCacheInited = true;
         sharedCache.initialize(conf);
+        registerStalenessGauge();
       }
     }
   }
 
+  private static void registerStalenessGauge() {
+    MetricRegistry registry = Metrics.getRegistry();
+    if (registry == null || registry.getGauges().containsKey(MetricsConstants.CACHED_STORE_STALENESS_SECS)) {
+      return;
+    }
+    registry.register(MetricsConstants.CACHED_STORE_STALENESS_SECS, new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        long lastUpdate = lastCacheUpdateTimeMs;
+        return lastUpdate == 0 ? -1 : (System.currentTimeMillis() - lastUpdate) / 1000;
+      }
+    });
+  }
+
+  private static void cacheUpdated(long startTimeNs) {
+    lastCacheUpdateTimeMs = System.currentTimeMillis();
+    Timer timer = Metrics.getOrCreateTimer(MetricsConstants.CACHED_STORE_UPDATE_TIME);
+    if (timer != null) {
+      timer.update(System.nanoTime() - startTimeNs, TimeUnit.NANOSECONDS);
+    }
+  }
+
   @VisibleForTesting public static SharedCache getSharedCache() {
     return sharedCache;
   }
@@ -590,6 +621,7 @@ static void clearSharedCache() {
 
   static void completePrewarm(long startTime, boolean cachedAllMetadata) {
     isCachePrewarmed.set(true);
+    lastCacheUpdateTimeMs = System.currentTimeMillis();
     isCachedAllMetadata.set(cachedAllMetadata);
     LOG.info("CachedStore initialized");
     long endTime = System.nanoTime();
@@ -746,6 +778,7 @@ static class CacheUpdateMasterWork implements Runnable {
     }
 
     void update() {
+      long startTime = System.nanoTime();
       Deadline.registerIfNot(1000000);
       LOG.debug("CachedStore: updating cached objects. Shared cache has been update {} times so far.",
           sharedCache.getUpdateCount());
@@ -781,6 +814,7 @@ void update() {
           }
         }
         sharedCache.incrementUpdateCount();
+        cacheUpdated(startTime);
         LOG.debug("CachedStore: updated cached objects. Shared cache update count is: {}",
             sharedCache.getUpdateCount());
       } catch (MetaException e) {
@@ -37,8 +37,10 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.codahale.metrics.Timer;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
@@ -66,6 +68,8 @@
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.metastore.api.TableMeta;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.metrics.Metrics;
+import org.apache.hadoop.hive.metastore.metrics.MetricsConstants;
 import org.apache.hadoop.hive.metastore.txn.TxnUtils;
 import org.apache.hadoop.hive.metastore.utils.MetaStoreServerUtils;
 import org.apache.hadoop.hive.metastore.utils.StringUtils;
@@ -81,6 +85,9 @@
 
 public class SharedCache {
   private static ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock(true);
+  // Looked up lazily, since metrics may be initialized after the cache.
+  private static volatile Timer readLockWaitTimer;
+  private static volatile Timer writeLockWaitTimer;
   private static final long MAX_DEFAULT_CACHE_SIZE = 1024 * 1024;
   private boolean isCatalogCachePrewarmed = false;
   private Map<String, Catalog> catalogCache = new TreeMap<>();
@@ -1153,13 +1160,60 @@ public ColumnStatisticsObj getColumnStatisticsObj() {
     }
   }
 
+  /**
+   * Takes the read lock, timing the wait only if the lock is contended, so that the uncontended
+   * reads, by far the most common, don't pay for the timer.
+   */
+  private static void lockForRead() {
+    if (tryLock(cacheLock.readLock())) {
+      return;
+    }
+    long start = System.nanoTime();
+    cacheLock.readLock().lock();
+    Timer timer = readLockWaitTimer;
+    if (timer == null) {
+      timer = readLockWaitTimer = Metrics.getOrCreateTimer(MetricsConstants.CACHED_STORE_READ_LOCK_WAIT);
+    }
+    if (timer != null) {
+      timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static void lockForWrite() {
+    if (tryLock(cacheLock.writeLock())) {
+      return;
+    }
+    long start = System.nanoTime();
+    cacheLock.writeLock().lock();
+    Timer timer = writeLockWaitTimer;
+    if (timer == null) {
+      timer = writeLockWaitTimer = Metrics.getOrCreateTimer(MetricsConstants.CACHED_STORE_WRITE_LOCK_WAIT);
+    }
+    if (timer != null) {
+      timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * @return true if the lock was free and is now held. Unlike tryLock(), the timed variant
+   *         honors the fairness of cacheLock, so readers don't barge ahead of a waiting writer.
+   */
+  private static boolean tryLock(Lock lock) {
+    try {
+      return lock.tryLock(0, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   public void populateCatalogsInCache(Collection<Catalog> catalogs) {
     for (Catalog cat : catalogs) {
       Catalog catCopy = cat.deepCopy();
       // ObjectStore also stores db name in lowercase
       catCopy.setName(catCopy.getName().toLowerCase());
       try {
-        cacheLock.writeLock().lock();
+        lockForWrite();
         // Since we allow write operations on cache while prewarm is happening:
         // 1. Don't add databases that were deleted while we were preparing list for prewarm
         // 2. Skip overwriting exisiting db object
@@ -1179,7 +1233,7 @@ public void populateCatalogsInCache(Collection<Catalog> catalogs) {
   public Catalog getCatalogFromCache(String name) {
     Catalog cat = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       if (catalogCache.get(name) != null) {
         cat = catalogCache.get(name).deepCopy();
       }
@@ -1191,7 +1245,7 @@ public Catalog getCatalogFromCache(String name) {
 
   public void addCatalogToCache(Catalog cat) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       Catalog catCopy = cat.deepCopy();
       // ObjectStore also stores db name in lowercase
       catCopy.setName(catCopy.getName().toLowerCase());
@@ -1204,7 +1258,7 @@ public void addCatalogToCache(Catalog cat) {
 
   public void alterCatalogInCache(String catName, Catalog newCat) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       removeCatalogFromCache(catName);
       addCatalogToCache(newCat.deepCopy());
     } finally {
@@ -1215,7 +1269,7 @@ public void alterCatalogInCache(String catName, Catalog newCat) {
   public void removeCatalogFromCache(String name) {
     name = normalizeIdentifier(name);
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       // If db cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
       if (!isCatalogCachePrewarmed) {
@@ -1231,7 +1285,7 @@ public void removeCatalogFromCache(String name) {
 
   public List<String> listCachedCatalogs() {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       return new ArrayList<>(catalogCache.keySet());
     } finally {
       cacheLock.readLock().unlock();
@@ -1245,7 +1299,7 @@ public boolean isCatalogCachePrewarmed() {
   public Database getDatabaseFromCache(String catName, String name) {
     Database db = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       String key = CacheUtils.buildDbKey(catName, name);
       if (databaseCache.get(key) != null) {
         db = databaseCache.get(key).deepCopy();
@@ -1262,7 +1316,7 @@ public void populateDatabasesInCache(List<Database> databases) {
       // ObjectStore also stores db name in lowercase
       dbCopy.setName(dbCopy.getName().toLowerCase());
       try {
-        cacheLock.writeLock().lock();
+        lockForWrite();
         // Since we allow write operations on cache while prewarm is happening:
         // 1. Don't add databases that were deleted while we were preparing list for prewarm
         // 2. Skip overwriting exisiting db object
@@ -1286,7 +1340,7 @@ public boolean isDatabaseCachePrewarmed() {
 
   public void addDatabaseToCache(Database db) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       Database dbCopy = db.deepCopy();
       // ObjectStore also stores db name in lowercase
       dbCopy.setName(dbCopy.getName().toLowerCase());
@@ -1300,7 +1354,7 @@ public void addDatabaseToCache(Database db) {
 
   public void removeDatabaseFromCache(String catName, String dbName) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       // If db cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
       String key = CacheUtils.buildDbKey(catName, dbName);
@@ -1318,7 +1372,7 @@ public void removeDatabaseFromCache(String catName, String dbName) {
   public List<String> listCachedDatabases(String catName) {
     List<String> results = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       for (String pair : databaseCache.keySet()) {
         String[] n = CacheUtils.splitDbName(pair);
         if (catName.equals(n[0])) {
@@ -1334,7 +1388,7 @@ public List<String> listCachedDatabases(String catName) {
   public List<String> listCachedDatabases(String catName, String pattern) {
     List<String> results = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       for (String pair : databaseCache.keySet()) {
         String[] n = CacheUtils.splitDbName(pair);
         if (catName.equals(n[0])) {
@@ -1356,7 +1410,7 @@ public List<String> listCachedDatabases(String catName, String pattern) {
    */
   public void alterDatabaseInCache(String catName, String dbName, Database newDb) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       removeDatabaseFromCache(catName, dbName);
       addDatabaseToCache(newDb.deepCopy());
       isDatabaseCacheDirty.set(true);
@@ -1371,7 +1425,7 @@ public boolean refreshDatabasesInCache(List<Database> databases) {
       return false;
     }
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       databaseCache.clear();
       for (Database db : databases) {
         addDatabaseToCache(db);
@@ -1384,7 +1438,7 @@ public boolean refreshDatabasesInCache(List<Database> databases) {
 
   public int getCachedDatabaseCount() {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       return databaseCache.size();
     } finally {
       cacheLock.readLock().unlock();
@@ -1435,7 +1489,7 @@ public boolean populateTableInCache(Table table, ColumnStatistics tableColStats,
     tblWrapper.isPartitionColStatsCacheDirty.set(false);
     tblWrapper.isAggrPartitionColStatsCacheDirty.set(false);
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       // 2. Skip overwriting exisiting table object
       // (which is present because it was added after prewarm started)
       tableCache.put(CacheUtils.buildTableKey(catName, dbName, tableName), tblWrapper);
@@ -1447,7 +1501,7 @@ public boolean populateTableInCache(Table table, ColumnStatistics tableColStats,
 
   public void completeTableCachePrewarm() {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       tablesDeletedDuringPrewarm.clear();
       isTableCachePrewarmed = true;
     } finally {
@@ -1458,7 +1512,7 @@ public void completeTableCachePrewarm() {
   public Table getTableFromCache(String catName, String dbName, String tableName) {
     Table t = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tableName));
       if (tblWrapper != null) {
         t = CacheUtils.assemble(tblWrapper, this);
@@ -1471,7 +1525,7 @@ public Table getTableFromCache(String catName, String dbName, String tableName)
 
   public TableWrapper addTableToCache(String catName, String dbName, String tblName, Table tbl) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       TableWrapper wrapper = createTableWrapper(catName, dbName, tblName, tbl);
       tableCache.put(CacheUtils.buildTableKey(catName, dbName, tblName), wrapper);
       isTableCacheDirty.set(true);
@@ -1506,7 +1560,7 @@ private TableWrapper createTableWrapper(String catName, String dbName, String tb
 
   public void removeTableFromCache(String catName, String dbName, String tblName) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       // If table cache is not yet prewarmed, add this to a set which the prewarm thread can check
       // so that the prewarm thread does not add it back
       if (!isTableCachePrewarmed) {
@@ -1532,7 +1586,7 @@ public void removeTableFromCache(String catName, String dbName, String tblName)
 
   public void alterTableInCache(String catName, String dbName, String tblName, Table newTable) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.updateTableObj(newTable, this);
@@ -1549,7 +1603,7 @@ public void alterTableInCache(String catName, String dbName, String tblName, Tab
   public void alterTableAndStatsInCache(String catName, String dbName, String tblName, long writeId,
       List<ColumnStatisticsObj> colStatsObjs, Map<String, String> newParams) {
     try {
-      cacheLock.writeLock().lock();
+      lockForWrite();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper == null) {
         LOG.info("Table " + tblName + " is missing from cache. Cannot update table stats in cache");
@@ -1572,7 +1626,7 @@ public void alterTableAndStatsInCache(String catName, String dbName, String tblN
   public List<Table> listCachedTables(String catName, String dbName) {
     List<Table> tables = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       for (TableWrapper wrapper : tableCache.asMap().values()) {
         if (wrapper.sameDatabase(catName, dbName)) {
           tables.add(CacheUtils.assemble(wrapper, this));
@@ -1587,7 +1641,7 @@ public List<Table> listCachedTables(String catName, String dbName) {
   public List<String> listCachedTableNames(String catName, String dbName) {
     List<String> tableNames = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       for (TableWrapper wrapper : tableCache.asMap().values()) {
         if (wrapper.sameDatabase(catName, dbName)) {
           tableNames.add(StringUtils.normalizeIdentifier(wrapper.getTable().getTableName()));
@@ -1602,7 +1656,7 @@ public List<String> listCachedTableNames(String catName, String dbName) {
   public List<String> listCachedTableNames(String catName, String dbName, String pattern, int maxTables) {
     List<String> tableNames = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       int count = 0;
       for (TableWrapper wrapper : tableCache.asMap().values()) {
         if (wrapper.sameDatabase(catName, dbName) && CacheUtils.matches(wrapper.getTable().getTableName(), pattern) && (
@@ -1621,7 +1675,7 @@ public List<String> listCachedTableNames(String catName, String dbName, String p
       int limit) {
     List<String> tableNames = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       int count = 0;
       for (TableWrapper wrapper : tableCache.asMap().values()) {
         if (wrapper.sameDatabase(catName, dbName) && CacheUtils.matches(wrapper.getTable().getTableName(), pattern)
@@ -1652,15 +1706,23 @@ public boolean refreshTablesInCache(String catName, String dbName, List<Table> t
       }
       newCacheForDB.put(CacheUtils.buildTableKey(catName, dbName, tblName), tblWrapper);
     }
+    // Find the tables that are gone while only holding the read lock; scanning the whole table
+    // cache under the write lock would block all the readers for the duration of the scan.
+    List<String> removedTableKeys = new ArrayList<>();
+    String dbKeyPrefix = CacheUtils.buildDbKeyWithDelimiterSuffix(catName, dbName);
     try {
-      cacheLock.writeLock().lock();
-      Iterator<Entry<String, TableWrapper>> entryIterator = tableCache.asMap().entrySet().iterator();
-      while (entryIterator.hasNext()) {
-        String key = entryIterator.next().getKey();
-        if (key.startsWith(CacheUtils.buildDbKeyWithDelimiterSuffix(catName, dbName))) {
-          entryIterator.remove();
+      lockForRead();
+      for (String key : tableCache.asMap().keySet()) {
+        if (key.startsWith(dbKeyPrefix) && !newCacheForDB.containsKey(key)) {
+          removedTableKeys.add(key);
         }
       }
+    } finally {
+      cacheLock.readLock().unlock();
+    }
+    try {
+      lockForWrite();
+      tableCache.invalidateAll(removedTableKeys);
       tableCache.putAll(newCacheForDB);
       return true;
     } finally {
@@ -1671,7 +1733,7 @@ public boolean refreshTablesInCache(String catName, String dbName, List<Table> t
   public ColumnStatistics getTableColStatsFromCache(String catName, String dbName, String tblName,
       List<String> colNames, String validWriteIds, boolean areTxnStatsSupported) throws MetaException {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper == null) {
         LOG.info("Table " + tblName + " is missing from cache.");
@@ -1686,7 +1748,7 @@ public ColumnStatistics getTableColStatsFromCache(String catName, String dbName,
 
   public void removeTableColStatsFromCache(String catName, String dbName, String tblName, String colName) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.removeTableColStats(colName);
@@ -1700,7 +1762,7 @@ public void removeTableColStatsFromCache(String catName, String dbName, String t
 
   public void removeAllTableColStatsFromCache(String catName, String dbName, String tblName) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.removeAllTableColStats();
@@ -1715,7 +1777,7 @@ public void removeAllTableColStatsFromCache(String catName, String dbName, Strin
   public void updateTableColStatsInCache(String catName, String dbName, String tableName,
       List<ColumnStatisticsObj> colStatsForTable) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tableName));
       if (tblWrapper != null) {
         tblWrapper.updateTableColStats(colStatsForTable);
@@ -1730,7 +1792,7 @@ public void updateTableColStatsInCache(String catName, String dbName, String tab
   public void refreshTableColStatsInCache(String catName, String dbName, String tableName,
       List<ColumnStatisticsObj> colStatsForTable) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tableName));
       if (tblWrapper != null) {
         tblWrapper.refreshTableColStats(colStatsForTable);
@@ -1744,7 +1806,7 @@ public void refreshTableColStatsInCache(String catName, String dbName, String ta
 
   public int getCachedTableCount() {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       return tableCache.asMap().size();
     } finally {
       cacheLock.readLock().unlock();
@@ -1754,7 +1816,7 @@ public int getCachedTableCount() {
   public List<TableMeta> getTableMeta(String catName, String dbNames, String tableNames, List<String> tableTypes) {
     List<TableMeta> tableMetas = new ArrayList<>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       for (String dbName : listCachedDatabases(catName)) {
         if (CacheUtils.matches(dbName, dbNames)) {
           for (Table table : listCachedTables(catName, dbName)) {
@@ -1777,7 +1839,7 @@ public List<TableMeta> getTableMeta(String catName, String dbNames, String table
 
   public void addPartitionToCache(String catName, String dbName, String tblName, Partition part) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       String tblKey = CacheUtils.buildTableKey(catName, dbName, tblName);
       TableWrapper tblWrapper = tableCache.getIfPresent(tblKey);
       if (tblWrapper != null) {
@@ -1790,7 +1852,7 @@ public void addPartitionToCache(String catName, String dbName, String tblName, P
 
   public void addPartitionsToCache(String catName, String dbName, String tblName, Iterable<Partition> parts) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.cachePartitions(parts, this, false);
@@ -1803,7 +1865,7 @@ public void addPartitionsToCache(String catName, String dbName, String tblName,
   public Partition getPartitionFromCache(String catName, String dbName, String tblName, List<String> partVals) {
     Partition part = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         part = tblWrapper.getPartition(partVals, this);
@@ -1817,7 +1879,7 @@ public Partition getPartitionFromCache(String catName, String dbName, String tbl
   public boolean existPartitionFromCache(String catName, String dbName, String tblName, List<String> partVals) {
     boolean existsPart = false;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         existsPart = tblWrapper.containsPartition(partVals);
@@ -1831,7 +1893,7 @@ public boolean existPartitionFromCache(String catName, String dbName, String tbl
   public Partition removePartitionFromCache(String catName, String dbName, String tblName, List<String> partVals) {
     Partition part = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         part = tblWrapper.removePartition(partVals, this);
@@ -1846,7 +1908,7 @@ public Partition removePartitionFromCache(String catName, String dbName, String
 
   public void removePartitionsFromCache(String catName, String dbName, String tblName, List<List<String>> partVals) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.removePartitions(partVals, this);
@@ -1859,7 +1921,7 @@ public void removePartitionsFromCache(String catName, String dbName, String tblN
   public List<Partition> listCachedPartitions(String catName, String dbName, String tblName, int max) {
     List<Partition> parts = new ArrayList<Partition>();
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         parts = tblWrapper.listPartitions(max, this);
@@ -1873,7 +1935,7 @@ public List<Partition> listCachedPartitions(String catName, String dbName, Strin
   public void alterPartitionInCache(String catName, String dbName, String tblName, List<String> partVals,
       Partition newPart) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.alterPartition(partVals, newPart, this);
@@ -1886,7 +1948,7 @@ public void alterPartitionInCache(String catName, String dbName, String tblName,
   public void alterPartitionAndStatsInCache(String catName, String dbName, String tblName, long writeId,
       List<String> partVals, Map<String, String> parameters, List<ColumnStatisticsObj> colStatsObjs) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.alterPartitionAndStats(partVals, this, writeId, parameters, colStatsObjs);
@@ -1899,7 +1961,7 @@ public void alterPartitionAndStatsInCache(String catName, String dbName, String
   public void alterPartitionsInCache(String catName, String dbName, String tblName, List<List<String>> partValsList,
       List<Partition> newParts) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.alterPartitions(partValsList, newParts, this);
@@ -1911,7 +1973,7 @@ public void alterPartitionsInCache(String catName, String dbName, String tblName
 
   public void refreshPartitionsInCache(String catName, String dbName, String tblName, List<Partition> partitions) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.refreshPartitions(partitions, this);
@@ -1924,7 +1986,7 @@ public void refreshPartitionsInCache(String catName, String dbName, String tblNa
   public void removePartitionColStatsFromCache(String catName, String dbName, String tblName, List<String> partVals,
       String colName) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.removePartitionColStats(partVals, colName);
@@ -1936,7 +1998,7 @@ public void removePartitionColStatsFromCache(String catName, String dbName, Stri
 
   public void removeAllPartitionColStatsFromCache(String catName, String dbName, String tblName) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.removeAllPartitionColStats();
@@ -1949,7 +2011,7 @@ public void removeAllPartitionColStatsFromCache(String catName, String dbName, S
   public void updatePartitionColStatsInCache(String catName, String dbName, String tableName, List<String> partVals,
       List<ColumnStatisticsObj> colStatsObjs) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tableName));
       if (tblWrapper != null) {
         tblWrapper.updatePartitionColStats(partVals, colStatsObjs);
@@ -1963,7 +2025,7 @@ public ColumStatsWithWriteId getPartitionColStatsFromCache(String catName, Strin
       List<String> partVal, String colName, String writeIdList) {
     ColumStatsWithWriteId colStatObj = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         colStatObj = tblWrapper.getPartitionColStats(partVal, colName, writeIdList);
@@ -1978,7 +2040,7 @@ public List<ColumnStatistics> getPartitionColStatsListFromCache(String catName,
       List<String> partNames, List<String> colNames, String writeIdList, boolean txnStatSupported) {
     List<ColumnStatistics> colStatObjs = null;
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         colStatObjs = tblWrapper.getPartColStatsList(partNames, colNames, writeIdList, txnStatSupported);
@@ -1994,7 +2056,7 @@ public List<ColumnStatistics> getPartitionColStatsListFromCache(String catName,
   public void refreshPartitionColStatsInCache(String catName, String dbName, String tblName,
       List<ColumnStatistics> partitionColStats) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.refreshPartitionColStats(partitionColStats);
@@ -2007,7 +2069,7 @@ public void refreshPartitionColStatsInCache(String catName, String dbName, Strin
   public List<ColumnStatisticsObj> getAggrStatsFromCache(String catName, String dbName, String tblName,
       List<String> colNames, StatsType statsType) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         return tblWrapper.getAggrPartitionColStats(colNames, statsType);
@@ -2021,7 +2083,7 @@ public List<ColumnStatisticsObj> getAggrStatsFromCache(String catName, String db
   public void addAggregateStatsToCache(String catName, String dbName, String tblName, AggrStats aggrStatsAllPartitions,
       AggrStats aggrStatsAllButDefaultPartition) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.cacheAggrPartitionColStats(aggrStatsAllPartitions, aggrStatsAllButDefaultPartition);
@@ -2035,7 +2097,7 @@ public void refreshAggregateStatsInCache(String catName, String dbName, String t
       AggrStats aggrStatsAllPartitions, AggrStats aggrStatsAllButDefaultPartition,
       Map<List<String>, Long> partNameToWriteId) {
     try {
-      cacheLock.readLock().lock();
+      lockForRead();
       TableWrapper tblWrapper = tableCache.getIfPresent(CacheUtils.buildTableKey(catName, dbName, tblName));
       if (tblWrapper != null) {
         tblWrapper.refreshAggrPartitionColStats(aggrStatsAllPartitions, aggrStatsAllButDefaultPartition, this,
@@ -23,6 +23,12 @@ public class MetricsConstants {
 
   public static final String TOTAL_API_CALLS = "total_api_calls";
 
+  // Only the contended acquisitions of the CachedStore lock are timed.
+  public static final String CACHED_STORE_READ_LOCK_WAIT = "cached_store_read_lock_wait";
+  public static final String CACHED_STORE_WRITE_LOCK_WAIT = "cached_store_write_lock_wait";
+  public static final String CACHED_STORE_UPDATE_TIME = "cached_store_update_time";
+  public static final String CACHED_STORE_STALENESS_SECS = "cached_store_staleness_secs";
+
   public static final String CREATE_TOTAL_DATABASES = "create_total_count_dbs";
   public static final String CREATE_TOTAL_TABLES = "create_total_count_tables";
   public static final String CREATE_TOTAL_PARTITIONS = "create_total_count_partitions";
@@ -602,6 +602,7 @@ public void cleanEmptyAbortedTxns() throws MetaException {
         LOG.info("Aborted transactions removed from TXNS: " + txnids);
         LOG.debug("Going to commit");
         dbConn.commit();
+        openTxnsSnapshot.invalidate();
       } catch (SQLException e) {
         LOG.error("Unable to delete from txns table " + e.getMessage());
         LOG.debug("Going to rollback");
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore.txn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hive.metastore.api.GetOpenTxnsResponse;
+
+/**
+ * Versioned, in-memory snapshot of the open/aborted transaction list returned by
+ * {@link TxnHandler#getOpenTxns()}.
+ *
+ * The version is bumped after every change to TXNS made through this metastore instance has been
+ * committed (open, commit, abort, timeout, cleanup).  A snapshot is only served while the version
+ * it was read at is still current, so readers of this instance always see their own changes.
+ * Changes made through other metastore instances sharing the same database are not observed;
+ * for those the snapshot is bounded by a maximum age, after which it is re-read from the
+ * database.
+ */
+class OpenTxnsSnapshot {
+  private final AtomicLong version = new AtomicLong();
+  private volatile Entry entry;
+
+  private static final class Entry {
+    private final long version;
+    private final long readTimeMs;
+    private final GetOpenTxnsResponse response;
+
+    private Entry(long version, long readTimeMs, GetOpenTxnsResponse response) {
+      this.version = version;
+      this.readTimeMs = readTimeMs;
+      this.response = response;
+    }
+  }
+
+  /**
+   * @return The current version; to be read before the database is queried, and passed to
+   *         {@link #put(long, long, GetOpenTxnsResponse)} with the result.
+   */
+  long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Invalidates the snapshot. Must be called after the change to TXNS has been committed.
+   */
+  void invalidate() {
+    version.incrementAndGet();
+  }
+
+  /**
+   * @param nowMs Current time.
+   * @param maxAgeMs Maximum age of the snapshot.
+   * @return A copy of the snapshot, or null if there is none, or it is stale.
+   */
+  GetOpenTxnsResponse get(long nowMs, long maxAgeMs) {
+    Entry current = entry;
+    if (current == null || current.version != version.get()
+        || nowMs - current.readTimeMs > maxAgeMs) {
+      return null;
+    }
+    // Thrift objects are mutable; never hand out the cached instance.
+    return new GetOpenTxnsResponse(current.response);
+  }
+
+  /**
+   * Stores the result of a database read.
+   * @param readVersion Version obtained via {@link #getVersion()} before the read.
+   * @param readTimeMs Time of the read.
+   * @param response The result of the read.
+   */
+  void put(long readVersion, long readTimeMs, GetOpenTxnsResponse response) {
+    if (readVersion != version.get()) {
+      return; // Something has changed since the read; the result may already be stale.
+    }
+    entry = new Entry(readVersion, readTimeMs, new GetOpenTxnsResponse(response));
+  }
+}
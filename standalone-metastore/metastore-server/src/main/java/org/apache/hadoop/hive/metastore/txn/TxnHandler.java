@@ -31,6 +31,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -183,6 +184,12 @@ enum TxnStatus {OPEN, ABORTED, COMMITTED, UNKNOWN}
 
   static private DataSource connPool;
   private static DataSource connPoolMutex;
+  // Number of shards the CheckLock mutex is split into, by database, as configured.
+  private static int checkLockShards = 1;
+  // The number of shards recorded in AUX_TABLE, which wins over the configured one; null until
+  // first read.  See getCheckLockShards().
+  private static volatile Integer recordedCheckLockShards = null;
+  private static final String CHECK_LOCK_SHARDS_KEY = MUTEX_KEY.CheckLock.name() + ".shards";
   static private boolean doRetryOnConnPool = false;
 
   private List<TransactionalMetaStoreEventListener> transactionalListeners;
@@ -257,6 +264,12 @@ char getSqlConst() {
   private int retryNum;
   // Current number of open txns
   private AtomicInteger numOpenTxns;
+  // Maximum age of the open txn list snapshot, in milliseconds; 0 if disabled.
+  private long openTxnsSnapshotMaxAge;
+  /**
+   * Must be static, like the connection pools, since HMS creates a TxnHandler per handler thread.
+   */
+  static final OpenTxnsSnapshot openTxnsSnapshot = new OpenTxnsSnapshot();
 
   /**
    * Derby specific concurrency control
@@ -305,8 +318,12 @@ public void setConf(Configuration conf) {
            to mutex on each MUTEX_KEY except MUTEX_KEY.CheckLock.  The CheckLock operation gets a
            connection from connPool first, then connPoolMutex.  All others, go in the opposite
            order (not very elegant...).  So number of connection requests for connPoolMutex cannot
-           exceed (size of connPool + MUTEX_KEY.values().length - 1).*/
-          connPoolMutex = setupJdbcConnectionPool(conf, maxPoolSize + MUTEX_KEY.values().length, getConnectionTimeoutMs);
+           exceed (size of connPool + MUTEX_KEY.values().length - 1).  With a sharded CheckLock
+           mutex, a checkLock() may hold one connection per shard it has locked while waiting for the
+           next one, so we need up to (checkLockShards - 1) more.*/
+          checkLockShards = Math.max(1, MetastoreConf.getIntVar(conf, ConfVars.TXN_CHECK_LOCK_SHARDS));
+          connPoolMutex = setupJdbcConnectionPool(conf,
+              maxPoolSize + MUTEX_KEY.values().length + checkLockShards - 1, getConnectionTimeoutMs);
           dbConn = getDbConn(Connection.TRANSACTION_READ_COMMITTED);
           determineDatabaseProduct(dbConn);
           sqlGenerator = new SQLGenerator(dbProduct, conf);
@@ -323,6 +340,8 @@ public void setConf(Configuration conf) {
     numOpenTxns = Metrics.getOrCreateGauge(MetricsConstants.NUM_OPEN_TXNS);
 
     timeout = MetastoreConf.getTimeVar(conf, ConfVars.TXN_TIMEOUT, TimeUnit.MILLISECONDS);
+    openTxnsSnapshotMaxAge = MetastoreConf.getTimeVar(conf, ConfVars.TXN_OPENTXNS_SNAPSHOT_MAX_AGE,
+        TimeUnit.MILLISECONDS);
     buildJumpTable();
     retryInterval = MetastoreConf.getTimeVar(conf, ConfVars.HMS_HANDLER_INTERVAL,
         TimeUnit.MILLISECONDS);
@@ -427,6 +446,13 @@ public GetOpenTxnsInfoResponse getOpenTxnsInfo() throws MetaException {
   @Override
   @RetrySemantics.ReadOnly
   public GetOpenTxnsResponse getOpenTxns() throws MetaException {
+    if (openTxnsSnapshotMaxAge > 0) {
+      GetOpenTxnsResponse snapshot =
+          openTxnsSnapshot.get(System.currentTimeMillis(), openTxnsSnapshotMaxAge);
+      if (snapshot != null) {
+        return snapshot;
+      }
+    }
     try {
       // We need to figure out the current transaction number and the list of
       // open transactions.  To avoid needing a transaction on the underlying
@@ -436,6 +462,9 @@ public GetOpenTxnsResponse getOpenTxns() throws MetaException {
       Statement stmt = null;
       ResultSet rs = null;
       try {
+        // The version must be read before the database, see OpenTxnsSnapshot.
+        long snapshotVersion = openTxnsSnapshot.getVersion();
+        long readTime = System.currentTimeMillis();
         /**
          * This runs at READ_COMMITTED for exactly the same reason as {@link #getOpenTxnsInfo()}
          */
@@ -478,6 +507,9 @@ public GetOpenTxnsResponse getOpenTxns() throws MetaException {
         if(minOpenTxn < Long.MAX_VALUE) {
           otr.setMin_open_txn(minOpenTxn);
         }
+        if (openTxnsSnapshotMaxAge > 0) {
+          openTxnsSnapshot.put(snapshotVersion, readTime, otr);
+        }
         return otr;
       } catch (SQLException e) {
         LOG.debug("Going to rollback");
@@ -559,6 +591,7 @@ public OpenTxnsResponse openTxns(OpenTxnRequest rqst) throws MetaException {
         throw new MetaException("Unable to select from transaction database "
           + StringUtils.stringifyException(e));
       } finally {
+        openTxnsSnapshot.invalidate();
         close(null, stmt, dbConn);
         unlockInternal();
       }
@@ -818,6 +851,7 @@ public void abortTxn(AbortTxnRequest rqst) throws NoSuchTxnException, MetaExcept
         throw new MetaException("Unable to update transaction database "
           + StringUtils.stringifyException(e));
       } finally {
+        openTxnsSnapshot.invalidate();
         close(null, stmt, dbConn);
         unlockInternal();
       }
@@ -857,6 +891,7 @@ public void abortTxns(AbortTxnsRequest rqst) throws NoSuchTxnException, MetaExce
         throw new MetaException("Unable to update transaction database "
             + StringUtils.stringifyException(e));
       } finally {
+        openTxnsSnapshot.invalidate();
         closeDbConn(dbConn);
       }
     } catch (RetryException e) {
@@ -1333,6 +1368,7 @@ public void commitTxn(CommitTxnRequest rqst)
         throw new MetaException("Unable to update transaction database "
           + StringUtils.stringifyException(e));
       } finally {
+        openTxnsSnapshot.invalidate();
         if (insertPreparedStmts != null) {
           for (PreparedStatement pst : insertPreparedStmts) {
             closeStmt(pst);
@@ -1444,6 +1480,7 @@ public void replTableWriteIdState(ReplTblWriteIdStateRequest rqst) throws MetaEx
         throw new MetaException("Unable to update transaction database "
                 + StringUtils.stringifyException(e));
       } finally {
+        openTxnsSnapshot.invalidate();
         if (insertPreparedStmts != null) {
           for (PreparedStatement pst : insertPreparedStmts) {
             closeStmt(pst);
@@ -4255,12 +4292,13 @@ private LockResponse checkLock(Connection dbConn, long extLockId)
      */
     boolean isPartOfDynamicPartitionInsert = true;
     try {
+      List<LockInfo> locksBeingChecked = getLockInfoFromLockId(dbConn, extLockId);//being acquired now
       /**
        * checkLock() must be mutex'd against any other checkLock to make sure 2 conflicting locks
-       * are not granted by parallel checkLock() calls.
+       * are not granted by parallel checkLock() calls.  Only locks in the same databases are
+       * checked for conflicts below, so it's sufficient to mutex on the databases' shards.
        */
-      handle = getMutexAPI().acquireLock(MUTEX_KEY.CheckLock.name());
-      List<LockInfo> locksBeingChecked = getLockInfoFromLockId(dbConn, extLockId);//being acquired now
+      handle = acquireCheckLockMutex(locksBeingChecked);
       response.setLockid(extLockId);
 
       LOG.debug("checkLock(): Setting savepoint. extLockId=" + JavaUtils.lockIdToString(extLockId));
@@ -4328,6 +4366,7 @@ private LockResponse checkLock(Connection dbConn, long extLockId)
             throw new IllegalStateException(msg + " FAILED!");
           }
           dbConn.commit();
+          openTxnsSnapshot.invalidate();
           throw new TxnAbortedException(msg);
         }
         close(rs, stmt, null);
@@ -4498,6 +4537,126 @@ private LockResponse checkLock(Connection dbConn, long extLockId)
     }
     return response;
   }
+  /**
+   * Acquires the CheckLock mutex for all the databases in {@code locksBeingChecked}.
+   */
+  private TxnStore.MutexAPI.LockHandle acquireCheckLockMutex(List<LockInfo> locksBeingChecked)
+      throws MetaException {
+    List<String> dbNames = new ArrayList<>(locksBeingChecked.size());
+    for (LockInfo info : locksBeingChecked) {
+      dbNames.add(info.db);
+    }
+    return acquireCheckLockMutex(getMutexAPI(), getCheckLockShards(), dbNames);
+  }
+
+  /**
+   * Returns the number of CheckLock shards to use.  All the metastores sharing a database must
+   * use the same number, or they would not exclude each other's checkLock() calls.  So the first
+   * metastore to take the CheckLock mutex records its configured number in AUX_TABLE, and every
+   * metastore uses the recorded number from then on.
+   */
+  @VisibleForTesting
+  int getCheckLockShards() throws MetaException {
+    Integer shards = recordedCheckLockShards;
+    if (shards == null) {
+      synchronized (TxnHandler.class) {
+        shards = recordedCheckLockShards;
+        if (shards == null) {
+          shards = loadCheckLockShards();
+          recordedCheckLockShards = shards;
+        }
+      }
+    }
+    return shards;
+  }
+
+  private int loadCheckLockShards() throws MetaException {
+    Connection dbConn = null;
+    Statement stmt = null;
+    ResultSet rs = null;
+    String sqlStmt = "select MT_COMMENT from AUX_TABLE where MT_KEY1="
+        + quoteString(CHECK_LOCK_SHARDS_KEY) + " and MT_KEY2=0";
+    try {
+      dbConn = getDbConn(Connection.TRANSACTION_READ_COMMITTED, connPoolMutex);
+      stmt = dbConn.createStatement();
+      LOG.debug("About to execute SQL: " + sqlStmt);
+      rs = stmt.executeQuery(sqlStmt);
+      if (!rs.next()) {
+        close(rs);
+        try {
+          stmt.executeUpdate("insert into AUX_TABLE(MT_KEY1,MT_KEY2,MT_COMMENT) values("
+              + quoteString(CHECK_LOCK_SHARDS_KEY) + ", 0, "
+              + quoteString(Integer.toString(checkLockShards)) + ")");
+          dbConn.commit();
+          return checkLockShards;
+        } catch (SQLException ex) {
+          if (!isDuplicateKeyError(ex)) {
+            throw ex;
+          }
+          //if here, another metastore recorded its number first
+          dbConn.rollback();
+        }
+        rs = stmt.executeQuery(sqlStmt);
+        if (!rs.next()) {
+          throw new IllegalStateException("Expected row in AUX_TABLE is missing for "
+              + quoteString(CHECK_LOCK_SHARDS_KEY));
+        }
+      }
+      int shards = Integer.parseInt(rs.getString(1));
+      if (shards != checkLockShards) {
+        LOG.warn("Using " + shards + " CheckLock shards as recorded in AUX_TABLE instead of the "
+            + checkLockShards + " set by " + ConfVars.TXN_CHECK_LOCK_SHARDS.getVarname());
+      }
+      return shards;
+    } catch (SQLException ex) {
+      rollbackDBConn(dbConn);
+      throw new MetaException("Unable to read the number of CheckLock shards due to: "
+          + getMessage(ex) + "; " + StringUtils.stringifyException(ex));
+    } finally {
+      close(rs, stmt, dbConn);
+    }
+  }
+
+  /**
+   * Acquires the CheckLock mutex for all the given databases.  With more than one shard (see
+   * {@link ConfVars#TXN_CHECK_LOCK_SHARDS}), checkLock() calls on databases that map to different
+   * shards run in parallel.  The shards are always locked in ascending order so that two
+   * checkLock() calls on overlapping sets of shards can't deadlock.
+   */
+  @VisibleForTesting
+  static TxnStore.MutexAPI.LockHandle acquireCheckLockMutex(TxnStore.MutexAPI mutexAPI,
+      int shardCount, Collection<String> dbNames) throws MetaException {
+    if (shardCount == 1) {
+      return mutexAPI.acquireLock(MUTEX_KEY.CheckLock.name());
+    }
+    SortedSet<Integer> shards = new TreeSet<>();
+    for (String dbName : dbNames) {
+      shards.add(Math.floorMod(dbName.hashCode(), shardCount));
+    }
+    List<TxnStore.MutexAPI.LockHandle> handles = new ArrayList<>(shards.size());
+    try {
+      for (int shard : shards) {
+        handles.add(mutexAPI.acquireLock(MUTEX_KEY.CheckLock.name() + "." + shard));
+      }
+    } catch (MetaException | RuntimeException e) {
+      releaseLocks(handles);
+      throw e;
+    }
+    return () -> releaseLocks(handles);
+  }
+
+  @VisibleForTesting
+  static void setCheckLockShards(int shards) {
+    checkLockShards = Math.max(1, shards);
+    recordedCheckLockShards = null;
+  }
+
+  private static void releaseLocks(List<TxnStore.MutexAPI.LockHandle> handles) {
+    for (int i = handles.size() - 1; i >= 0; --i) {
+      handles.get(i).releaseLocks();
+    }
+  }
+
   private void acquire(Connection dbConn, Statement stmt, List<LockInfo> locksBeingChecked)
     throws SQLException, NoSuchLockException, MetaException {
     if(locksBeingChecked == null || locksBeingChecked.isEmpty()) {
@@ -4999,6 +5158,7 @@ public void performTimeOuts() {
         for(List<Long> batchToAbort : timedOutTxns) {
           if(abortTxns(dbConn, batchToAbort, now - timeout, true) == batchToAbort.size()) {
             dbConn.commit();
+            openTxnsSnapshot.invalidate();
             numTxnsAborted += batchToAbort.size();
             //todo: add TXNS.COMMENT filed and set it to 'aborted by system due to timeout'
             Collections.sort(batchToAbort);//easier to read logs
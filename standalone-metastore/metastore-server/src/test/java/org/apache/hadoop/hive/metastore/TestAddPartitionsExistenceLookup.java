@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
+import org.apache.hadoop.hive.metastore.conf.MetastoreConf.ConfVars;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the batched lookup of the existing partitions done by add_partitions.
+ */
+@Category(MetastoreUnitTest.class)
+public class TestAddPartitionsExistenceLookup {
+
+  private static final String CAT_NAME = "hive";
+  private static final String DB_NAME = "test_db";
+  private static final String TABLE_NAME = "test_table";
+  private static final List<FieldSchema> PARTITION_KEYS =
+      Collections.singletonList(new FieldSchema("p", "string", null));
+
+  private HiveMetaStore.HMSHandler handler;
+  private RawStore ms;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration conf = MetastoreConf.newMetastoreConf();
+    MetastoreConf.setLongVar(conf, ConfVars.BATCH_RETRIEVE_MAX, 2);
+    handler = new HiveMetaStore.HMSHandler("test", conf, false);
+    ms = Mockito.mock(RawStore.class);
+  }
+
+  /**
+   * Makes the store hold the given partitions. When caseInsensitive is set, the lookup by name
+   * matches them regardless of the case, like a database with a case-insensitive collation.
+   */
+  private void storePartitions(boolean caseInsensitive, String... values) throws Exception {
+    Map<String, Partition> stored = new HashMap<>();
+    for (String value : values) {
+      Partition part = partition(value);
+      stored.put(Warehouse.makePartName(PARTITION_KEYS, part.getValues()), part);
+    }
+    when(ms.getPartitionsByNames(eq(CAT_NAME), eq(DB_NAME), eq(TABLE_NAME), anyListOf(String.class)))
+        .thenAnswer(invocation -> {
+          @SuppressWarnings("unchecked")
+          List<String> names = (List<String>) invocation.getArguments()[3];
+          List<Partition> result = new ArrayList<>();
+          for (Map.Entry<String, Partition> entry : stored.entrySet()) {
+            for (String name : names) {
+              if (caseInsensitive ? name.equalsIgnoreCase(entry.getKey()) : name.equals(entry.getKey())) {
+                result.add(entry.getValue());
+                break;
+              }
+            }
+          }
+          return result;
+        });
+  }
+
+  private static Partition partition(String value) {
+    Partition part = new Partition();
+    part.setCatName(CAT_NAME);
+    part.setDbName(DB_NAME);
+    part.setTableName(TABLE_NAME);
+    part.setValues(Collections.singletonList(value));
+    return part;
+  }
+
+  private static List<Partition> partitions(String... values) {
+    List<Partition> parts = new ArrayList<>();
+    for (String value : values) {
+      parts.add(partition(value));
+    }
+    return parts;
+  }
+
+  private Map<String, Boolean> lookup(List<Partition> parts) throws Exception {
+    return handler.lookupPartitionsExist(ms, CAT_NAME, DB_NAME, TABLE_NAME, PARTITION_KEYS, parts);
+  }
+
+  private boolean startAddPartition(Partition part, boolean ifNotExists,
+      Map<String, Boolean> partitionsExist) throws Exception {
+    return handler.startAddPartition(ms, part, PARTITION_KEYS, ifNotExists, partitionsExist);
+  }
+
+  @Test
+  public void testMixedExistingAndNewIfNotExists() throws Exception {
+    storePartitions(false, "b", "d");
+    List<Partition> parts = partitions("a", "b", "c", "d", "e");
+
+    Map<String, Boolean> partitionsExist = lookup(parts);
+    Map<String, Boolean> expected = new HashMap<>();
+    expected.put("p=a", false);
+    expected.put("p=b", true);
+    expected.put("p=c", false);
+    expected.put("p=d", true);
+    expected.put("p=e", false);
+    Assert.assertEquals(expected, partitionsExist);
+    // One lookup per batch of two partitions
+    verify(ms, times(3)).getPartitionsByNames(eq(CAT_NAME), eq(DB_NAME), eq(TABLE_NAME),
+        anyListOf(String.class));
+
+    List<Boolean> shouldAdd = new ArrayList<>();
+    for (Partition part : parts) {
+      shouldAdd.add(startAddPartition(part, true, partitionsExist));
+    }
+    Assert.assertEquals(Arrays.asList(true, false, true, false, true), shouldAdd);
+    verify(ms, never()).doesPartitionExist(anyString(), anyString(), anyString(),
+        anyListOf(FieldSchema.class), anyListOf(String.class));
+  }
+
+  @Test
+  public void testMixedExistingAndNewWithoutIfNotExists() throws Exception {
+    storePartitions(false, "b");
+    List<Partition> parts = partitions("a", "b", "c");
+
+    Map<String, Boolean> partitionsExist = lookup(parts);
+    Assert.assertTrue(startAddPartition(parts.get(0), false, partitionsExist));
+    try {
+      startAddPartition(parts.get(1), false, partitionsExist);
+      Assert.fail("AlreadyExistsException should have happened.");
+    } catch (AlreadyExistsException e) {
+      // Expected exception
+    }
+    Assert.assertTrue(startAddPartition(parts.get(2), false, partitionsExist));
+    verify(ms, never()).doesPartitionExist(anyString(), anyString(), anyString(),
+        anyListOf(FieldSchema.class), anyListOf(String.class));
+  }
+
+  @Test
+  public void testDuplicateNamesInRequest() throws Exception {
+    storePartitions(false, "b");
+    // The duplicates themselves are rejected by validatePartition, the lookup only has to
+    // report them consistently
+    List<Partition> parts = partitions("a", "a", "b", "b");
+
+    Map<String, Boolean> partitionsExist = lookup(parts);
+    Map<String, Boolean> expected = new HashMap<>();
+    expected.put("p=a", false);
+    expected.put("p=b", true);
+    Assert.assertEquals(expected, partitionsExist);
+  }
+
+  @Test
+  public void testBatchWithDifferentCaseResultIsSkipped() throws Exception {
+    // The store returns year=A when asked for year=a
+    storePartitions(true, "A");
+    List<Partition> parts = partitions("a", "b", "c", "d");
+
+    Map<String, Boolean> partitionsExist = lookup(parts);
+    // The first batch is left to the one by one check, the second one is decided
+    Map<String, Boolean> expected = new HashMap<>();
+    expected.put("p=c", false);
+    expected.put("p=d", false);
+    Assert.assertEquals(expected, partitionsExist);
+
+    when(ms.doesPartitionExist(CAT_NAME, DB_NAME, TABLE_NAME, PARTITION_KEYS,
+        Collections.singletonList("a"))).thenReturn(false);
+    Assert.assertTrue(startAddPartition(parts.get(0), true, partitionsExist));
+    verify(ms).doesPartitionExist(CAT_NAME, DB_NAME, TABLE_NAME, PARTITION_KEYS,
+        Collections.singletonList("a"));
+  }
+
+  @Test
+  public void testBatchWithNamesDifferingInCaseIsSkipped() throws Exception {
+    storePartitions(false, "c");
+    List<Partition> parts = partitions("a", "A", "c");
+
+    Map<String, Boolean> partitionsExist = lookup(parts);
+    Assert.assertEquals(Collections.singletonMap("p=c", true), partitionsExist);
+
+    when(ms.doesPartitionExist(CAT_NAME, DB_NAME, TABLE_NAME, PARTITION_KEYS,
+        Collections.singletonList("A"))).thenReturn(true);
+    Assert.assertFalse(startAddPartition(parts.get(1), true, partitionsExist));
+    verify(ms).doesPartitionExist(CAT_NAME, DB_NAME, TABLE_NAME, PARTITION_KEYS,
+        Collections.singletonList("A"));
+  }
+}
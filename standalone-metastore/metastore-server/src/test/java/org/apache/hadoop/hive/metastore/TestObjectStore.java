@@ -22,7 +22,9 @@
 import com.google.common.collect.ImmutableList;
 import org.apache.hadoop.hive.metastore.ObjectStore.RetryingExecutor;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
 import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
 import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Catalog;
 import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
@@ -37,6 +39,7 @@
 import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
 import org.apache.hadoop.hive.metastore.api.InvalidInputException;
 import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NotificationEvent;
@@ -86,6 +89,7 @@
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -586,6 +590,85 @@ public void testDirectSQLDropParitionsCleanup() throws Exception {
     checkBackendTableSize("SERDES", 1); // Table has a serde
   }
 
+  /**
+   * Checks that the stats roll-ups of a table are dropped when the transaction updating its stats
+   * commits, rather than when the nested update commits while the stats can still be read, and
+   * rolled up, as they were before.
+   */
+  @Test
+  public void testStatsRollupsInvalidatedOnOuterCommit() throws Exception {
+    MetastoreConf.setBoolVar(conf, ConfVars.AGGREGATE_STATS_ROLLUP_ENABLED, true);
+    MetastoreConf.setBoolVar(conf, ConfVars.STATS_FETCH_BITVECTOR, true);
+    objectStore = new ObjectStore();
+    objectStore.setConf(conf);
+    createPartitionedTable(false, false);
+    List<String> partNames = new ArrayList<>();
+    List<ColumnStatisticsObj> oldStats = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      partNames.add("test_part_col=a" + i);
+      oldStats.add(updateLongColumnStatistics(i, 9));
+    }
+    // Computes the roll-up of the partitions, then serves the aggregate from it
+    Assert.assertEquals(9, getAggrHighValue(partNames));
+    Assert.assertEquals(9, getAggrHighValue(partNames));
+
+    PartitionColStatsRollups rollups = PartitionColStatsRollups.getInstance(conf);
+    objectStore.openTransaction();
+    try {
+      updateLongColumnStatistics(0, 99);
+      // Until the outer transaction commits, a concurrent reader still reads the previous stats,
+      // and may roll them up.
+      rollups.put(rollups.getGeneration(), DEFAULT_CATALOG_NAME, DB1, TABLE1, ENGINE, "",
+          partNames, PartitionColStatsRollups.rollUp(oldStats));
+      Assert.assertTrue(objectStore.commitTransaction());
+    } finally {
+      if (objectStore.isActiveTransaction()) {
+        objectStore.rollbackTransaction();
+      }
+    }
+    Assert.assertNull(rollups.get(DEFAULT_CATALOG_NAME, DB1, TABLE1, ENGINE, "test_col1", "",
+        partNames));
+    Assert.assertEquals(99, getAggrHighValue(partNames));
+  }
+
+  private ColumnStatisticsObj updateLongColumnStatistics(int partIndex, long highValue)
+      throws Exception {
+    LongColumnStatsData longStats = new LongColumnStatsData(0, highValue + 1);
+    longStats.setLowValue(0);
+    longStats.setHighValue(highValue);
+    HyperLogLog hll = HyperLogLog.builder().build();
+    for (long i = 0; i <= highValue; ++i) {
+      hll.addLong(i);
+    }
+    longStats.setBitVectors(hll.serialize());
+    ColumnStatisticsObj statsObj =
+        new ColumnStatisticsObj("test_col1", "int", ColumnStatisticsData.longStats(longStats));
+
+    ColumnStatisticsDesc desc = new ColumnStatisticsDesc();
+    desc.setCatName(DEFAULT_CATALOG_NAME);
+    desc.setDbName(DB1);
+    desc.setTableName(TABLE1);
+    desc.setPartName("test_part_col=a" + partIndex);
+    ColumnStatistics stats = new ColumnStatistics();
+    stats.setStatsDesc(desc);
+    stats.setStatsObj(new ArrayList<>(Collections.singletonList(new ColumnStatisticsObj(statsObj))));
+    stats.setEngine(ENGINE);
+    try (AutoCloseable c = deadline()) {
+      objectStore.updatePartitionColumnStatistics(stats,
+          Collections.singletonList("a" + partIndex), null, -1);
+    }
+    return statsObj;
+  }
+
+  private long getAggrHighValue(List<String> partNames) throws Exception {
+    try (AutoCloseable c = deadline()) {
+      AggrStats aggrStats = objectStore.get_aggr_stats_for(DEFAULT_CATALOG_NAME, DB1, TABLE1,
+          partNames, Collections.singletonList("test_col1"), ENGINE);
+      Assert.assertEquals(partNames.size(), aggrStats.getPartsFound());
+      return aggrStats.getColStats().get(0).getStatsData().getLongStats().getHighValue();
+    }
+  }
+
   /**
    * Creates DB1 database, TABLE1 table with 3 partitions.
    * @param withPrivileges Should we create privileges as well
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.common.ndv.NumDistinctValueEstimatorFactory;
+import org.apache.hadoop.hive.common.ndv.hll.HyperLogLog;
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(MetastoreUnitTest.class)
+public class TestPartitionColStatsRollups {
+
+  private static ColumnStatisticsObj longStats(long low, long high, long numNulls, boolean bitVectors) {
+    LongColumnStatsData data = new LongColumnStatsData(numNulls, high - low + 1);
+    data.setLowValue(low);
+    data.setHighValue(high);
+    if (bitVectors) {
+      HyperLogLog hll = HyperLogLog.builder().build();
+      for (long i = low; i <= high; ++i) {
+        hll.addLong(i);
+      }
+      data.setBitVectors(hll.serialize());
+    }
+    return new ColumnStatisticsObj("c", "bigint", ColumnStatisticsData.longStats(data));
+  }
+
+  @Test
+  public void testGroupName() {
+    Assert.assertEquals("", PartitionColStatsRollups.getGroupName("ds=2020-01-01"));
+    Assert.assertEquals("month=2020-01", PartitionColStatsRollups.getGroupName("month=2020-01/day=01"));
+  }
+
+  @Test
+  public void testRollUp() {
+    ColumnStatisticsObj first = longStats(0, 9, 1, true);
+    ColumnStatisticsObj rollup = PartitionColStatsRollups.rollUp(
+        Arrays.asList(first, longStats(5, 19, 2, true)));
+    Assert.assertNotNull(rollup);
+    LongColumnStatsData data = rollup.getStatsData().getLongStats();
+    Assert.assertEquals(0, data.getLowValue());
+    Assert.assertEquals(19, data.getHighValue());
+    Assert.assertEquals(3, data.getNumNulls());
+    Assert.assertEquals(20, data.getNumDVs(), 1);
+    Assert.assertTrue(data.isSetBitVectors());
+    // The input is left untouched.
+    Assert.assertEquals(9, first.getStatsData().getLongStats().getHighValue());
+
+    Assert.assertNull(PartitionColStatsRollups.rollUp(
+        Arrays.asList(longStats(0, 9, 1, true), longStats(5, 19, 2, false))));
+  }
+
+  @Test
+  public void testRollUpCopy() {
+    ColumnStatisticsObj rollup = PartitionColStatsRollups.rollUp(
+        Arrays.asList(longStats(0, 9, 1, true), longStats(5, 19, 2, true)));
+    // The merged estimator is serialized, so a copy carries the merged bit vectors.
+    byte[] bitVectors = new ColumnStatisticsObj(rollup).getStatsData().getLongStats().getBitVectors();
+    Assert.assertNotNull(bitVectors);
+    Assert.assertEquals(20,
+        NumDistinctValueEstimatorFactory.getNumDistinctValueEstimator(bitVectors).estimateNumDistinctValues(), 1);
+  }
+
+  @Test
+  public void testGetMatchesPartitions() {
+    PartitionColStatsRollups rollups = new PartitionColStatsRollups(100, 60000);
+    ColumnStatisticsObj rollup = PartitionColStatsRollups.rollUp(
+        Arrays.asList(longStats(0, 9, 1, true), longStats(5, 19, 2, true)));
+    rollups.put(rollups.getGeneration(), "hive", "db", "tbl", "hive", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2"), rollup);
+
+    Assert.assertNotNull(rollups.get("hive", "db", "tbl", "hive", "c", "m=1",
+        Arrays.asList("m=1/d=2", "m=1/d=1")));
+    Assert.assertNull(rollups.get("hive", "db", "tbl", "hive", "c", "m=1",
+        Arrays.asList("m=1/d=1")));
+    Assert.assertNull(rollups.get("hive", "db", "tbl", "hive", "c", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2", "m=1/d=3")));
+    Assert.assertNull(rollups.get("hive", "db", "tbl", "hive", "d", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2")));
+
+    rollups.invalidateTable("hive", "db", "TBL");
+    Assert.assertNull(rollups.get("hive", "db", "tbl", "hive", "c", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2")));
+  }
+
+  @Test
+  public void testPutAfterInvalidationDropped() {
+    PartitionColStatsRollups rollups = new PartitionColStatsRollups(100, 60000);
+    ColumnStatisticsObj rollup = PartitionColStatsRollups.rollUp(
+        Arrays.asList(longStats(0, 9, 1, true), longStats(5, 19, 2, true)));
+    // The stats were read before a commit changing them invalidated the table.
+    long generation = rollups.getGeneration();
+    rollups.invalidateTable("hive", "db", "tbl");
+    rollups.put(generation, "hive", "db", "tbl", "hive", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2"), rollup);
+    Assert.assertNull(rollups.get("hive", "db", "tbl", "hive", "c", "m=1",
+        Arrays.asList("m=1/d=1", "m=1/d=2")));
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(MetastoreUnitTest.class)
+public class TestReadReplicaRouter {
+
+  private static RawStore storeAtEvent(long eventId) {
+    RawStore store = mock(RawStore.class);
+    when(store.getCurrentNotificationEventId()).thenReturn(new CurrentNotificationEventId(eventId));
+    return store;
+  }
+
+  @Test
+  public void testClassification() throws Exception {
+    Assert.assertTrue(ReadReplicaRouter.isReplicaRead(
+        RawStore.class.getMethod("getDatabase", String.class, String.class)));
+    Assert.assertFalse(ReadReplicaRouter.isReplicaRead(
+        RawStore.class.getMethod("getCurrentNotificationEventId")));
+    Assert.assertFalse(ReadReplicaRouter.isWrite(
+        RawStore.class.getMethod("getCurrentNotificationEventId")));
+    Assert.assertFalse(ReadReplicaRouter.isWrite(RawStore.class.getMethod("openTransaction")));
+    Assert.assertTrue(ReadReplicaRouter.isWrite(RawStore.class.getMethod("commitTransaction")));
+  }
+
+  @Test
+  public void testPrivilegeReadsOnPrimary() throws Exception {
+    // Grants and roles are written without a notification event.
+    for (Method method : RawStore.class.getMethods()) {
+      String name = method.getName();
+      if (name.contains("Priv") || name.contains("Role") || name.contains("Grant")) {
+        Assert.assertFalse(name, ReadReplicaRouter.isReplicaRead(method));
+      }
+    }
+  }
+
+  @Test
+  public void testReplicaReadsAreRawStoreReads() {
+    // A renamed or removed method must not silently drop out of the replica reads.
+    Set<String> reads = new HashSet<>();
+    for (Method method : RawStore.class.getMethods()) {
+      if (!ReadReplicaRouter.isWrite(method)) {
+        reads.add(method.getName());
+      }
+    }
+    for (String name : ReadReplicaRouter.REPLICA_READS) {
+      Assert.assertTrue(name, reads.contains(name));
+    }
+  }
+
+  @Test
+  public void testUnlistedReadsOnPrimary() throws Exception {
+    for (Method method : RawStore.class.getMethods()) {
+      if (!ReadReplicaRouter.REPLICA_READS.contains(method.getName())) {
+        Assert.assertFalse(method.getName(), ReadReplicaRouter.isReplicaRead(method));
+      }
+    }
+    // Written without a notification event.
+    Assert.assertFalse(ReadReplicaRouter.isReplicaRead(
+        RawStore.class.getMethod("getFileMetadata", List.class)));
+  }
+
+  @Test
+  public void testReplicaBehind() {
+    ReadReplicaRouter router = new ReadReplicaRouter(60000);
+    Assert.assertFalse(router.useReplica(storeAtEvent(10), storeAtEvent(9)));
+    // Not checked again before the interval has passed.
+    Assert.assertFalse(router.useReplica(storeAtEvent(10), storeAtEvent(10)));
+  }
+
+  @Test
+  public void testWriteForcesCheck() {
+    ReadReplicaRouter router = new ReadReplicaRouter(60000);
+    Assert.assertTrue(router.useReplica(storeAtEvent(10), storeAtEvent(10)));
+    router.writeCommitted();
+    Assert.assertFalse(router.useReplica(storeAtEvent(11), storeAtEvent(10)));
+    router.writeCommitted();
+    Assert.assertTrue(router.useReplica(storeAtEvent(11), storeAtEvent(11)));
+  }
+
+  @Test
+  public void testReplicaFailure() {
+    ReadReplicaRouter router = new ReadReplicaRouter(0);
+    RawStore replica = mock(RawStore.class);
+    when(replica.getCurrentNotificationEventId()).thenThrow(new RuntimeException("down"));
+    Assert.assertFalse(router.useReplica(storeAtEvent(10), replica));
+    Assert.assertTrue(router.useReplica(storeAtEvent(10), storeAtEvent(12)));
+  }
+}
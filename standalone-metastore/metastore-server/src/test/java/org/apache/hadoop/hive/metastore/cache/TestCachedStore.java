@@ -19,6 +19,7 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -818,6 +819,58 @@ public void testGetAllTablesPrewarmMemoryLimit() throws Exception {
     cachedStore.shutdown();
   }
 
+  private static Table tableAt(String dbName, String tblName, String location) {
+    Table tbl = new Table();
+    tbl.setCatName(DEFAULT_CATALOG_NAME);
+    tbl.setDbName(dbName);
+    tbl.setTableName(tblName);
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(Arrays.asList(new FieldSchema("col1", "int", "")));
+    sd.setParameters(new HashMap<>());
+    sd.setLocation(location);
+    tbl.setSd(sd);
+    tbl.setPartitionKeys(new ArrayList<>());
+    return tbl;
+  }
+
+  @Test public void testRefreshTablesInCache() {
+    Configuration conf = MetastoreConf.newMetastoreConf();
+    MetastoreConf.setBoolVar(conf, MetastoreConf.ConfVars.HIVE_IN_TEST, true);
+    MetastoreConf.setVar(conf, MetastoreConf.ConfVars.CACHED_RAW_STORE_MAX_CACHE_MEMORY, "-1Kb");
+    MetaStoreTestUtils.setConfForStandloneMode(conf);
+    CachedStore cachedStore = new CachedStore();
+    CachedStore.clearSharedCache();
+    cachedStore.setConfForTest(conf);
+    SharedCache sharedCache = CachedStore.getSharedCache();
+
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db1", "tbl1", tableAt("db1", "tbl1", "loc1"));
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db1", "tbl2", tableAt("db1", "tbl2", "loc2"));
+    // Shares the prefix of db1, but is another database.
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db10", "tbl1", tableAt("db10", "tbl1", "loc3"));
+    sharedCache.clearDirtyFlags();
+
+    // tbl2 is gone, tbl1 is updated and tbl3 is new.
+    Assert.assertTrue(sharedCache.refreshTablesInCache(DEFAULT_CATALOG_NAME, "db1",
+        Arrays.asList(tableAt("db1", "tbl1", "newloc1"), tableAt("db1", "tbl3", "loc4"))));
+    List<String> db1Tables = sharedCache.listCachedTableNames(DEFAULT_CATALOG_NAME, "db1");
+    Collections.sort(db1Tables);
+    Assert.assertEquals(Arrays.asList("tbl1", "tbl3"), db1Tables);
+    Assert.assertEquals("newloc1",
+        sharedCache.getTableFromCache(DEFAULT_CATALOG_NAME, "db1", "tbl1").getSd().getLocation());
+    Assert.assertEquals("loc3",
+        sharedCache.getTableFromCache(DEFAULT_CATALOG_NAME, "db10", "tbl1").getSd().getLocation());
+    Assert.assertEquals(3, sharedCache.getCachedTableCount());
+
+    // A table cached after the refreshed list was read makes the refresh skip.
+    sharedCache.addTableToCache(DEFAULT_CATALOG_NAME, "db1", "tbl5", tableAt("db1", "tbl5", "loc5"));
+    Assert.assertFalse(sharedCache.refreshTablesInCache(DEFAULT_CATALOG_NAME, "db1",
+        Arrays.asList(tableAt("db1", "tbl1", "loc1"))));
+    Assert.assertEquals(4, sharedCache.getCachedTableCount());
+    Assert.assertEquals("newloc1",
+        sharedCache.getTableFromCache(DEFAULT_CATALOG_NAME, "db1", "tbl1").getSd().getLocation());
+    cachedStore.shutdown();
+  }
+
   @Test public void testSharedStorePartition() {
     Configuration conf = MetastoreConf.newMetastoreConf();
     MetastoreConf.setBoolVar(conf, MetastoreConf.ConfVars.HIVE_IN_TEST, true);
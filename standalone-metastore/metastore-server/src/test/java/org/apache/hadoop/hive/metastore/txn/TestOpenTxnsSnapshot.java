@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore.txn;
+
+import org.apache.hadoop.hive.metastore.annotation.MetastoreUnitTest;
+import org.apache.hadoop.hive.metastore.api.GetOpenTxnsResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+@Category(MetastoreUnitTest.class)
+public class TestOpenTxnsSnapshot {
+
+  private static GetOpenTxnsResponse createResponse() {
+    return new GetOpenTxnsResponse(10L, new ArrayList<>(Arrays.asList(5L, 7L)),
+        ByteBuffer.wrap(new byte[0]));
+  }
+
+  @Test
+  public void testServedUntilInvalidated() {
+    OpenTxnsSnapshot snapshot = new OpenTxnsSnapshot();
+    Assert.assertNull(snapshot.get(0, 1000));
+
+    snapshot.put(snapshot.getVersion(), 0, createResponse());
+    GetOpenTxnsResponse cached = snapshot.get(500, 1000);
+    Assert.assertNotNull(cached);
+    Assert.assertEquals(10L, cached.getTxn_high_water_mark());
+    Assert.assertEquals(Arrays.asList(5L, 7L), cached.getOpen_txns());
+
+    // Callers must not be able to modify the snapshot.
+    cached.getOpen_txns().add(8L);
+    Assert.assertEquals(2, snapshot.get(500, 1000).getOpen_txnsSize());
+
+    snapshot.invalidate();
+    Assert.assertNull(snapshot.get(500, 1000));
+  }
+
+  @Test
+  public void testMaxAge() {
+    OpenTxnsSnapshot snapshot = new OpenTxnsSnapshot();
+    snapshot.put(snapshot.getVersion(), 0, createResponse());
+    Assert.assertNotNull(snapshot.get(1000, 1000));
+    Assert.assertNull(snapshot.get(1001, 1000));
+  }
+
+  @Test
+  public void testConcurrentChangeDuringRead() {
+    OpenTxnsSnapshot snapshot = new OpenTxnsSnapshot();
+    long version = snapshot.getVersion();
+    // A transaction is committed while the list is being read from the database.
+    snapshot.invalidate();
+    snapshot.put(version, 0, createResponse());
+    Assert.assertNull(snapshot.get(0, 1000));
+  }
+}
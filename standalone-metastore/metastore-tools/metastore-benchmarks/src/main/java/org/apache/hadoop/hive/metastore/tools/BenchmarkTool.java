@@ -157,6 +157,7 @@ public void run() {
         .setScale(scale)
         .doSanitize(doSanitize)
         .add("getNid", () -> benchmarkGetNotificationId(bench, bData))
+        .add("getOpenTxns", () -> benchmarkGetOpenTxns(bench, bData, 0))
         .add("listDatabases", () -> benchmarkListDatabases(bench, bData))
         .add("listTables", () -> benchmarkListAllTables(bench, bData))
         .add("getTable", () -> benchmarkGetTable(bench, bData))
@@ -193,12 +194,16 @@ public void run() {
               () -> benchmarkGetPartitionsByName(bench, bData, howMany))
           .add("addPartitions" + '.' + howMany,
               () -> benchmarkCreatePartitions(bench, bData, howMany))
+          .add("addPartitionsIfNotExists" + '.' + howMany,
+              () -> benchmarkAddPartitionsIfNotExists(bench, bData, howMany))
           .add("dropPartitions" + '.' + howMany,
               () -> benchmarkDropPartitions(bench, bData, howMany))
           .add("renameTable" + '.' + howMany,
               () -> benchmarkRenameTable(bench, bData, howMany))
           .add("dropDatabase" + '.' + howMany,
-              () -> benchmarkDropDatabase(bench, bData, howMany));
+              () -> benchmarkDropDatabase(bench, bData, howMany))
+          .add("getOpenTxns" + '.' + howMany,
+              () -> benchmarkGetOpenTxns(bench, bData, howMany));
     }
 
     if (doList) {
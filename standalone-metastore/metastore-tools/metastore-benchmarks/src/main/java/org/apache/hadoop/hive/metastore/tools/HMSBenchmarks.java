@@ -41,6 +41,7 @@
 
 import static org.apache.hadoop.hive.metastore.tools.Util.addManyPartitions;
 import static org.apache.hadoop.hive.metastore.tools.Util.addManyPartitionsNoException;
+import static org.apache.hadoop.hive.metastore.tools.Util.createManyPartitions;
 import static org.apache.hadoop.hive.metastore.tools.Util.createSchema;
 import static org.apache.hadoop.hive.metastore.tools.Util.generatePartitionNames;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -291,6 +292,42 @@ static DescriptiveStatistics benchmarkCreatePartitions(@NotNull MicroBenchmark b
     }
   }
 
+  /**
+   * Adds partitions the way MSCK REPAIR does: in one call, skipping the ones that exist.
+   * Half of the partitions exist.
+   */
+  static DescriptiveStatistics benchmarkAddPartitionsIfNotExists(@NotNull MicroBenchmark bench,
+                                                                 @NotNull BenchData data,
+                                                                 int count) {
+    final HMSClient client = data.getClient();
+    String dbName = data.dbName;
+    String tableName = data.tableName;
+
+    createPartitionedTable(client, dbName, tableName);
+    try {
+      Table table = client.getTable(dbName, tableName);
+      List<Partition> partitions =
+          createManyPartitions(table, null, Collections.singletonList("d"), count * 2);
+      return bench.measure(
+          () -> throwingSupplierWrapper(() -> {
+            client.addPartitions(partitions.subList(0, count));
+            return null;
+          }),
+          () -> throwingSupplierWrapper(() -> {
+            client.addPartitions(dbName, tableName, partitions, true);
+            return null;
+          }),
+          () -> throwingSupplierWrapper(() ->
+              client.dropPartitions(dbName, tableName, null))
+      );
+    } catch (TException e) {
+      e.printStackTrace();
+      return new DescriptiveStatistics();
+    } finally {
+      throwingSupplierWrapper(() -> client.dropTable(dbName, tableName));
+    }
+  }
+
   static DescriptiveStatistics benchmarkDropPartitions(@NotNull MicroBenchmark bench,
                                                        @NotNull BenchData data,
                                                        int count) {
@@ -444,4 +481,21 @@ static DescriptiveStatistics benchmarkGetNotificationId(@NotNull MicroBenchmark
         throwingSupplierWrapper(client::getCurrentNotificationId));
   }
 
+  static DescriptiveStatistics benchmarkGetOpenTxns(@NotNull MicroBenchmark benchmark,
+                                                    @NotNull BenchData data,
+                                                    int howMany) {
+    final HMSClient client = data.getClient();
+    List<Long> txnIds = howMany > 0 ?
+        throwingSupplierWrapper(() -> client.openTxns(howMany)) :
+        Collections.emptyList();
+    try {
+      return benchmark.measure(() ->
+          throwingSupplierWrapper(client::getOpenTxns));
+    } finally {
+      if (!txnIds.isEmpty()) {
+        throwingSupplierWrapper(() -> client.abortTxns(txnIds));
+      }
+    }
+  }
+
 }
@@ -20,10 +20,14 @@
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.AbortTxnsRequest;
+import org.apache.hadoop.hive.metastore.api.AddPartitionsRequest;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.DropPartitionsRequest;
 import org.apache.hadoop.hive.metastore.api.DropPartitionsResult;
+import org.apache.hadoop.hive.metastore.api.GetOpenTxnsResponse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.OpenTxnRequest;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.RequestPartsSpec;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -252,6 +256,14 @@ void addPartitions(List<Partition> partitions) throws TException {
     client.add_partitions(partitions);
   }
 
+  void addPartitions(@NotNull String dbName, @NotNull String tableName,
+                     List<Partition> partitions, boolean ifNotExists) throws TException {
+    AddPartitionsRequest request =
+        new AddPartitionsRequest(dbName, tableName, partitions, ifNotExists);
+    request.setNeedResult(false);
+    client.add_partitions_req(request);
+  }
+
 
   List<Partition> listPartitions(@NotNull String dbName,
                                  @NotNull String tableName) throws TException {
@@ -262,6 +274,19 @@ Long getCurrentNotificationId() throws TException {
     return client.get_current_notificationEventId().getEventId();
   }
 
+  List<Long> openTxns(int numTxns) throws TException {
+    return client.open_txns(new OpenTxnRequest(numTxns, "benchmark", "localhost")).getTxn_ids();
+  }
+
+  boolean abortTxns(@NotNull List<Long> txnIds) throws TException {
+    client.abort_txns(new AbortTxnsRequest(txnIds));
+    return true;
+  }
+
+  GetOpenTxnsResponse getOpenTxns() throws TException {
+    return client.get_open_txns();
+  }
+
   List<String> getPartitionNames(@NotNull String dbName,
                                  @NotNull String tableName) throws TException {
     return client.get_partition_names(dbName, tableName, (short) -1);